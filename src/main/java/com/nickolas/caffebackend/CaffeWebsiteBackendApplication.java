@@ -3,6 +3,7 @@ package com.nickolas.caffebackend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 /**
  * Головний клас запуску Spring Boot застосунку для Caffe Website.
@@ -11,6 +12,7 @@ import org.springframework.boot.autoconfigure.domain.EntityScan;
  */
 @SpringBootApplication
 @EntityScan(basePackages = "com.nickolas.caffebackend.model")
+@EnableScheduling
 public class CaffeWebsiteBackendApplication {
     public static void main(String[] args) {
         SpringApplication.run(CaffeWebsiteBackendApplication.class, args);
@@ -0,0 +1,121 @@
+package com.nickolas.caffebackend.cart;
+
+import com.nickolas.caffebackend.repository.CartJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Фонове очищення покинутих кошиків.
+ * <p>
+ * Періодично видаляє кошики, які не змінювалися довше за {@code cart.sweeper.ttl-days}.
+ * Видалення йде невеликими порціями, кожна у власній короткій транзакції, з паузою між порціями,
+ * тож очищення не тримає довгих блокувань і не конкурує з робочим навантаженням.
+ * Кількість видалених рядків і тривалість проходів публікуються як метрики Micrometer.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.sweeper.enabled", havingValue = "true", matchIfMissing = true)
+public class AbandonedCartSweeper {
+    private final CartJdbcRepository cartJdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int ttlDays;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int maxBatches;
+    private final Counter cartsPurged;
+    private final Counter itemsPurged;
+    private final Timer sweepTimer;
+
+    /**
+     * Конструктор з впровадженням залежностей.
+     *
+     * @param cartJdbcRepository пакетні операції над кошиками
+     * @param transactionManager менеджер транзакцій для порцій
+     * @param meterRegistry      реєстр метрик
+     * @param ttlDays            кількість днів неактивності, після якої кошик вважається покинутим
+     * @param batchSize          кількість кошиків в одній порції
+     * @param pauseMillis        пауза між порціями
+     * @param maxBatches         максимальна кількість порцій за один прохід
+     */
+    @Autowired
+    public AbandonedCartSweeper(CartJdbcRepository cartJdbcRepository, PlatformTransactionManager transactionManager,
+                                MeterRegistry meterRegistry,
+                                @Value("${cart.sweeper.ttl-days:30}") int ttlDays,
+                                @Value("${cart.sweeper.batch-size:500}") int batchSize,
+                                @Value("${cart.sweeper.pause-ms:200}") long pauseMillis,
+                                @Value("${cart.sweeper.max-batches:100}") int maxBatches) {
+        this.cartJdbcRepository = cartJdbcRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.ttlDays = ttlDays;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxBatches = maxBatches;
+        this.cartsPurged = Counter.builder("cart.sweeper.purged")
+                .description("Abandoned carts deleted")
+                .tag("table", "cart")
+                .register(meterRegistry);
+        this.itemsPurged = Counter.builder("cart.sweeper.purged")
+                .description("Items of abandoned carts deleted")
+                .tag("table", "cart_items")
+                .register(meterRegistry);
+        this.sweepTimer = Timer.builder("cart.sweeper.duration")
+                .description("Time spent purging abandoned carts")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Виконує один прохід очищення.
+     */
+    @Scheduled(initialDelayString = "${cart.sweeper.initial-delay-ms:60000}",
+            fixedDelayString = "${cart.sweeper.interval-ms:3600000}")
+    public void sweep() {
+        sweepTimer.record(this::sweepBatches);
+    }
+
+    private void sweepBatches() {
+        LocalDateTime now = LocalDateTime.now();
+        for (int batch = 0; batch < maxBatches; batch++) {
+            int stamped = cartJdbcRepository.stampMissingUpdatedAt(now, batchSize);
+            if (stamped < batchSize) {
+                break;
+            }
+            if (!pause()) {
+                return;
+            }
+        }
+
+        LocalDateTime before = now.minusDays(ttlDays);
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Long> ids = cartJdbcRepository.findIdleCartIds(before, batchSize);
+            if (ids.isEmpty()) {
+                return;
+            }
+            int[] deleted = transactionTemplate.execute(status -> cartJdbcRepository.deleteIdleCarts(ids, before));
+            itemsPurged.increment(deleted[0]);
+            cartsPurged.increment(deleted[1]);
+            if (ids.size() < batchSize || !pause()) {
+                return;
+            }
+        }
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
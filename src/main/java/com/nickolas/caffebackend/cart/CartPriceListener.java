@@ -0,0 +1,53 @@
+package com.nickolas.caffebackend.cart;
+
+import com.nickolas.caffebackend.catalog.DishPricesChangedEvent;
+import com.nickolas.caffebackend.repository.CartJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Підтримує збережені суми кошиків узгодженими з цінами меню.
+ * <p>
+ * Коли ціна страви змінюється, суми всіх кошиків з нею коригуються одним пакетним
+ * SQL-оновленням на різницю ціни, без перерахунку позицій кожного кошика. Оновлення виконується
+ * в транзакції зміни страви і відкочується разом з нею.
+ */
+@Component
+public class CartPriceListener {
+    private final CartJdbcRepository cartJdbcRepository;
+    private final CartStore cartStore;
+
+    /**
+     * Конструктор з впровадженням залежностей.
+     *
+     * @param cartJdbcRepository пакетні операції над кошиками
+     * @param cartStore          сховище кошиків
+     */
+    @Autowired
+    public CartPriceListener(CartJdbcRepository cartJdbcRepository, CartStore cartStore) {
+        this.cartJdbcRepository = cartJdbcRepository;
+        this.cartStore = cartStore;
+    }
+
+    /**
+     * Коригує суми кошиків у транзакції, що змінила ціни страв.
+     *
+     * @param event подія зміни цін
+     */
+    @EventListener
+    public void onPricesChanged(DishPricesChangedEvent event) {
+        cartJdbcRepository.applyPriceDeltas(event.getDeltas());
+    }
+
+    /**
+     * Після фіксації нових цін скидає кошики з цими стравами, закешовані сховищем.
+     *
+     * @param event подія зміни цін
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void afterPricesChanged(DishPricesChangedEvent event) {
+        cartStore.repriced(event.getDeltas().keySet());
+    }
+}
@@ -0,0 +1,65 @@
+package com.nickolas.caffebackend.cart;
+
+import com.nickolas.caffebackend.model.Cart;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Сховище кошиків користувачів.
+ * <p>
+ * Режим зберігання задається властивістю {@code cart.store.mode}: {@code direct} (за замовчуванням)
+ * записує кожну зміну в БД синхронно, {@code write-behind} тримає активні кошики в пам'яті
+ * і скидає накопичені зміни в БД пакетами.
+ */
+public interface CartStore {
+
+    /**
+     * Повертає кошик користувача, створюючи його, якщо він ще не існує.
+     *
+     * @param email електронна пошта користувача
+     * @return кошик користувача
+     */
+    Cart read(String email);
+
+    /**
+     * Повертає кошик користувача лише для відображення, створюючи його, якщо він ще не існує.
+     * Кошик може бути відокремленою копією, страви позицій — заглушками лише з ідентифікатором.
+     *
+     * @param email електронна пошта користувача
+     * @return кошик користувача, який не можна змінювати
+     */
+    Cart view(String email);
+
+    /**
+     * Атомарно змінює кошик користувача.
+     *
+     * @param email  електронна пошта користувача
+     * @param change зміна, що застосовується до кошика
+     * @return кошик після зміни
+     */
+    Cart mutate(String email, Consumer<Cart> change);
+
+    /**
+     * Примусово зберігає в БД незбережені зміни кошика користувача.
+     *
+     * @param email електронна пошта користувача
+     */
+    void flush(String email);
+
+    /**
+     * Повідомляє про зміну цін страв. Збережені в БД суми вже скориговано,
+     * сховище має узгодити з ними кошики, які тримає в пам'яті.
+     *
+     * @param dishIds ідентифікатори страв зі зміненою ціною
+     */
+    void repriced(Set<Long> dishIds);
+
+    /**
+     * Повідомляє, що кошик користувача змінено в БД в обхід сховища (наприклад, очищено
+     * при оформленні замовлення), тож копію в пам'яті треба відкинути.
+     *
+     * @param email електронна пошта користувача
+     */
+    void invalidate(String email);
+}
@@ -0,0 +1,142 @@
+package com.nickolas.caffebackend.cart;
+
+import com.nickolas.caffebackend.model.Cart;
+import com.nickolas.caffebackend.model.User;
+import com.nickolas.caffebackend.repository.CartJdbcRepository;
+import com.nickolas.caffebackend.repository.CartRepository;
+import com.nickolas.caffebackend.repository.UserRepository;
+import com.nickolas.caffebackend.exception.CartConflictException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Сховище кошиків, що читає і записує кошик у БД при кожній зміні.
+ * <p>
+ * Паралельні зміни одного кошика (дві вкладки, подвійне натискання) не блокують одна одну:
+ * запис умовний за версією кошика, а при конфлікті зміна повторюється на свіжих даних
+ * обмежену кількість разів. Кількість конфліктів і повторів публікується як метрики Micrometer.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.mode", havingValue = "direct", matchIfMissing = true)
+public class DirectCartStore implements CartStore {
+    private final CartRepository cartRepository;
+    private final CartJdbcRepository cartJdbcRepository;
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int maxAttempts;
+    private final Counter conflicts;
+    private final Counter retries;
+    private final Counter exhausted;
+
+    /**
+     * Конструктор з впровадженням залежностей.
+     *
+     * @param cartRepository репозиторій кошиків
+     * @param cartJdbcRepository проєкційне читання кошиків
+     * @param userRepository репозиторій користувачів
+     * @param transactionManager менеджер транзакцій для спроб зміни
+     * @param meterRegistry реєстр метрик
+     * @param maxAttempts максимальна кількість спроб зміни при конфліктах версій
+     */
+    @Autowired
+    public DirectCartStore(CartRepository cartRepository, CartJdbcRepository cartJdbcRepository, UserRepository userRepository,
+                           PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                           @Value("${cart.store.max-attempts:3}") int maxAttempts) {
+        this.cartRepository = cartRepository;
+        this.cartJdbcRepository = cartJdbcRepository;
+        this.userRepository = userRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxAttempts = maxAttempts;
+        this.conflicts = Counter.builder("cart.update.conflicts")
+                .description("Cart writes rejected because of a concurrent change")
+                .register(meterRegistry);
+        this.retries = Counter.builder("cart.update.retries")
+                .description("Cart writes retried after a version conflict")
+                .register(meterRegistry);
+        this.exhausted = Counter.builder("cart.update.exhausted")
+                .description("Cart writes that failed after all retries")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public Cart read(String email) {
+        return cartRepository.findByUserEmail(email)
+                .orElseGet(() -> createCartForUser(email));
+    }
+
+    /**
+     * Читає кошик одним проєкційним запитом замість завантаження кошика, користувача і страв.
+     */
+    @Override
+    public Cart view(String email) {
+        return cartJdbcRepository.findByUserEmail(email).orElseGet(() -> read(email));
+    }
+
+    /**
+     * Змінює кошик в окремій транзакції з перевіркою версії. Якщо кошик тим часом змінив
+     * інший запит, зміна застосовується повторно до свіжого стану. Всередині зовнішньої
+     * транзакції повтор неможливий, тож конфлікт одразу повертається викликачу.
+     *
+     * @throws CartConflictException якщо спроби вичерпано
+     */
+    @Override
+    public Cart mutate(String email, Consumer<Cart> change) {
+        int attempts = TransactionSynchronizationManager.isActualTransactionActive() ? 1 : maxAttempts;
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> {
+                    Cart cart = read(email);
+                    change.accept(cart);
+                    Cart saved = cartRepository.save(cart);
+                    cartRepository.flush();
+                    return saved;
+                });
+            } catch (OptimisticLockingFailureException e) {
+                conflicts.increment();
+                if (attempt >= attempts) {
+                    exhausted.increment();
+                    throw new CartConflictException("Cart was modified concurrently, please retry");
+                }
+                retries.increment();
+            }
+        }
+    }
+
+    @Override
+    public void flush(String email) {
+    }
+
+    @Override
+    public void repriced(Set<Long> dishIds) {
+    }
+
+    @Override
+    public void invalidate(String email) {
+    }
+
+    /**
+     * Створює новий кошик для користувача.
+     *
+     * @param email електронна пошта користувача
+     * @return створений об'єкт {@link Cart}
+     * @throws RuntimeException якщо користувача не знайдено
+     */
+    private Cart createCartForUser(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Cart cart = new Cart();
+        cart.setUser(user);
+        return cartRepository.save(cart);
+    }
+}
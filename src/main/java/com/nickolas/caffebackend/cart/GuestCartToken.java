@@ -0,0 +1,171 @@
+package com.nickolas.caffebackend.cart;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Підписаний токен гостьового кошика.
+ * <p>
+ * Вміст кошика анонімного відвідувача зберігається у клієнта у вигляді компактного рядка
+ * {@code дані.підпис}, де дані — {@code v1|час видачі|id:кількість,id:кількість}, а підпис —
+ * HMAC-SHA256. Сервер не зберігає нічого до входу або оформлення замовлення. Кількість позицій,
+ * кількість однієї страви та довжина токена обмежені, прострочені токени вважаються порожнім кошиком.
+ * <p>
+ * Секрет {@code cart.guest.secret} має бути однаковим на всіх екземплярах і між перезапусками,
+ * інакше раніше видані токени перестають перевірятися і гості втрачають кошик.
+ */
+@Component
+public class GuestCartToken {
+    private static final Logger log = LoggerFactory.getLogger(GuestCartToken.class);
+    private static final String PREFIX = "v1";
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final int MAX_TOKEN_LENGTH = 2048;
+
+    private final SecretKeySpec key;
+    private final int maxLines;
+    private final int maxQuantity;
+    private final Duration ttl;
+
+    /**
+     * Конструктор з налаштуваннями токена.
+     *
+     * @param secret      секрет підпису; якщо порожній, ключ генерується при кожному запуску,
+     *                    як і ключ JWT у {@link com.nickolas.caffebackend.config.JwtConstant},
+     *                    і токени діють лише до перезапуску в межах одного екземпляра
+     * @param maxLines    максимальна кількість позицій
+     * @param maxQuantity максимальна кількість однієї страви
+     * @param ttlDays     строк дії токена в днях
+     */
+    public GuestCartToken(@Value("${cart.guest.secret:}") String secret,
+                          @Value("${cart.guest.max-lines:50}") int maxLines,
+                          @Value("${cart.guest.max-quantity:99}") int maxQuantity,
+                          @Value("${cart.guest.ttl-days:7}") int ttlDays) {
+        byte[] keyBytes;
+        if (secret == null || secret.isBlank()) {
+            keyBytes = new byte[32];
+            new SecureRandom().nextBytes(keyBytes);
+            log.warn("cart.guest.secret is not set, guest cart tokens will not survive a restart or work across instances");
+        } else {
+            keyBytes = secret.getBytes(StandardCharsets.UTF_8);
+        }
+        this.key = new SecretKeySpec(keyBytes, ALGORITHM);
+        this.maxLines = maxLines;
+        this.maxQuantity = maxQuantity;
+        this.ttl = Duration.ofDays(ttlDays);
+    }
+
+    /**
+     * Кодує і підписує вміст гостьового кошика.
+     *
+     * @param lines ідентифікатор страви → кількість
+     * @return токен
+     * @throws RuntimeException якщо кошик перевищує обмеження
+     */
+    public String encode(Map<Long, Integer> lines) {
+        if (lines.size() > maxLines) {
+            throw new RuntimeException("Guest cart is limited to " + maxLines + " items");
+        }
+        StringBuilder payload = new StringBuilder(PREFIX).append('|')
+                .append(System.currentTimeMillis() / 1000).append('|');
+        boolean first = true;
+        for (Map.Entry<Long, Integer> line : lines.entrySet()) {
+            if (line.getValue() > maxQuantity) {
+                throw new RuntimeException("Guest cart quantity is limited to " + maxQuantity);
+            }
+            if (!first) {
+                payload.append(',');
+            }
+            payload.append(line.getKey()).append(':').append(line.getValue());
+            first = false;
+        }
+        byte[] data = payload.toString().getBytes(StandardCharsets.UTF_8);
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString(data) + "." + encoder.encodeToString(sign(data));
+    }
+
+    /**
+     * Перевіряє підпис і декодує вміст гостьового кошика.
+     *
+     * @param token токен або {@code null}
+     * @return ідентифікатор страви → кількість; порожній, якщо токена немає або він прострочений
+     * @throws IllegalArgumentException якщо токен пошкоджений, підроблений або завеликий
+     */
+    public Map<Long, Integer> decode(String token) {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        if (token == null || token.isBlank()) {
+            return lines;
+        }
+        if (token.length() > MAX_TOKEN_LENGTH) {
+            throw new IllegalArgumentException("Guest cart token is too large");
+        }
+        int dot = token.indexOf('.');
+        if (dot < 0) {
+            throw new IllegalArgumentException("Malformed guest cart token");
+        }
+        byte[] data;
+        byte[] signature;
+        try {
+            data = Base64.getUrlDecoder().decode(token.substring(0, dot));
+            signature = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Malformed guest cart token", e);
+        }
+        if (!MessageDigest.isEqual(sign(data), signature)) {
+            throw new IllegalArgumentException("Invalid guest cart signature");
+        }
+
+        String[] parts = new String(data, StandardCharsets.UTF_8).split("\\|", -1);
+        if (parts.length != 3 || !PREFIX.equals(parts[0])) {
+            throw new IllegalArgumentException("Unsupported guest cart token");
+        }
+        long issuedAt = Long.parseLong(parts[1]);
+        if (System.currentTimeMillis() / 1000 - issuedAt > ttl.toSeconds()) {
+            return lines;
+        }
+        if (!parts[2].isEmpty()) {
+            for (String line : parts[2].split(",")) {
+                int colon = line.indexOf(':');
+                lines.put(Long.parseLong(line.substring(0, colon)), Integer.parseInt(line.substring(colon + 1)));
+            }
+        }
+        return lines;
+    }
+
+    /**
+     * Декодує вміст гостьового кошика, вважаючи пошкоджений чи підписаний іншим ключем токен порожнім кошиком.
+     *
+     * @param token токен або {@code null}
+     * @return ідентифікатор страви → кількість; порожній, якщо токен відсутній, прострочений або недійсний
+     */
+    public Map<Long, Integer> decodeOrEmpty(String token) {
+        try {
+            return decode(token);
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring invalid guest cart token: {}", e.getMessage());
+            return new LinkedHashMap<>();
+        }
+    }
+
+    private byte[] sign(byte[] data) {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(key);
+            return mac.doFinal(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,436 @@
+package com.nickolas.caffebackend.cart;
+
+import com.nickolas.caffebackend.catalog.MenuCatalog;
+import com.nickolas.caffebackend.catalog.MenuSnapshot;
+import com.nickolas.caffebackend.model.Cart;
+import com.nickolas.caffebackend.model.CartItem;
+import com.nickolas.caffebackend.model.Dish;
+import com.nickolas.caffebackend.model.User;
+import com.nickolas.caffebackend.repository.CartJdbcRepository;
+import com.nickolas.caffebackend.repository.CartRepository;
+import com.nickolas.caffebackend.repository.UserRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * Сховище кошиків з відкладеним записом.
+ * <p>
+ * Активні кошики зберігаються в пам'яті, доступ до кошика одного користувача серіалізується
+ * одним із {@value #STRIPES} замків, тож різні користувачі не заважають один одному, а зміни
+ * одного користувача не конфліктують; версія кошика призначається тут і записується при скиданні. Зміни лише
+ * позначають кошик як змінений; планувальник періодично скидає всі змінені кошики в БД одним
+ * пакетом (видалення старих позицій і вставка нових), кілька кліків між скиданнями зливаються
+ * в один запис. Оформлення замовлення та зупинка застосунку примусово скидають зміни.
+ * Кошики, до яких давно не зверталися і які вже збережені, витісняються з пам'яті.
+ * <p>
+ * Запис умовний: кошик записується, лише якщо його версія в БД не змінилася з моменту завантаження
+ * або попереднього скидання. Якщо кошик тим часом очистило оформлення замовлення чи видалило прибирання,
+ * незбережені зміни відкидаються, а кошик перечитується з БД при наступному зверненні.
+ * Зміна цін теж збільшує версію в БД, тож після неї версії кошиків у пам'яті оновлюються.
+ * <p>
+ * Скидання і завантаження виконуються у власних транзакціях, навіть якщо викликані з транзакції
+ * оформлення замовлення: відкат оформлення не відкочує записаний кошик, а стан записів у пам'яті
+ * оновлюється лише після фіксації запису.
+ */
+@Component
+@ConditionalOnProperty(name = "cart.store.mode", havingValue = "write-behind")
+public class WriteBehindCartStore implements CartStore {
+    private static final Logger log = LoggerFactory.getLogger(WriteBehindCartStore.class);
+    private static final int STRIPES = 64;
+
+    private final CartRepository cartRepository;
+    private final UserRepository userRepository;
+    private final CartJdbcRepository cartJdbcRepository;
+    private final MenuCatalog menuCatalog;
+    private final TransactionTemplate transactionTemplate;
+    private final long idleMillis;
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final ReentrantLock[] stripes = new ReentrantLock[STRIPES];
+    /** Не дозволяє двом скиданням писати ті самі кошики одночасно. */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * Конструктор з впровадженням залежностей.
+     *
+     * @param cartRepository     репозиторій кошиків
+     * @param userRepository     репозиторій користувачів
+     * @param cartJdbcRepository пакетний запис позицій кошиків
+     * @param menuCatalog        модель читання меню, з якої беруться страви
+     * @param transactionManager менеджер транзакцій для скидання
+     * @param idleMillis         час неактивності, після якого збережений кошик витісняється з пам'яті
+     */
+    @Autowired
+    public WriteBehindCartStore(CartRepository cartRepository, UserRepository userRepository,
+                                CartJdbcRepository cartJdbcRepository, MenuCatalog menuCatalog,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${cart.store.idle-ttl-ms:600000}") long idleMillis) {
+        this.cartRepository = cartRepository;
+        this.userRepository = userRepository;
+        this.cartJdbcRepository = cartJdbcRepository;
+        this.menuCatalog = menuCatalog;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.idleMillis = idleMillis;
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public Cart read(String email) {
+        ReentrantLock lock = stripe(email);
+        lock.lock();
+        try {
+            Entry entry = load(email);
+            entry.lastAccess = System.currentTimeMillis();
+            return copy(entry.cart);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Кошик уже в пам'яті, тож відображення використовує ту саму копію, що й {@link #read}.
+     */
+    @Override
+    public Cart view(String email) {
+        return read(email);
+    }
+
+    @Override
+    public Cart mutate(String email, Consumer<Cart> change) {
+        ReentrantLock lock = stripe(email);
+        lock.lock();
+        try {
+            Entry entry = load(email);
+            Cart working = copy(entry.cart);
+            change.accept(working);
+            working.setVersion(working.getVersion() + 1);
+            entry.cart = working;
+            entry.version++;
+            entry.lastAccess = System.currentTimeMillis();
+            return copy(working);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void flush(String email) {
+        Entry entry = entries.get(email);
+        if (entry == null) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            write(List.of(entry));
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Скидає підсумки кошиків у пам'яті, що містять страви зі зміненою ціною: вони будуть
+     * перераховані при наступному зверненні. Кошик позначається зміненим, щоб скидання
+     * не перезаписало скориговану в БД суму старим значенням.
+     */
+    @Override
+    public void repriced(Set<Long> dishIds) {
+        flushLock.lock();
+        try {
+            List<Entry> affectedEntries = new ArrayList<>();
+            for (Entry entry : entries.values()) {
+                ReentrantLock lock = stripe(entry.email);
+                lock.lock();
+                try {
+                    boolean affected = entry.cart.getItems().stream()
+                            .anyMatch(item -> dishIds.contains(item.getDish().getId()));
+                    if (affected) {
+                        Cart repriced = copy(entry.cart);
+                        repriced.setSubtotal(null);
+                        entry.cart = repriced;
+                        entry.version++;
+                        affectedEntries.add(entry);
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+            if (affectedEntries.isEmpty()) {
+                return;
+            }
+
+            // Перерахунок цін збільшив версії в БД; підсумок усе одно буде перезаписано перерахованим.
+            Map<Long, Long> versions = cartJdbcRepository.findVersions(
+                    affectedEntries.stream().map(entry -> entry.cart.getId()).toList());
+            for (Entry entry : affectedEntries) {
+                ReentrantLock lock = stripe(entry.email);
+                lock.lock();
+                try {
+                    Long stored = versions.get(entry.cart.getId());
+                    if (stored != null && stored > entry.storedVersion) {
+                        entry.storedVersion = stored;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public void invalidate(String email) {
+        ReentrantLock lock = stripe(email);
+        lock.lock();
+        try {
+            entries.remove(email);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Періодично скидає всі змінені кошики в БД і витісняє неактивні.
+     */
+    @Scheduled(fixedDelayString = "${cart.store.flush-interval-ms:2000}")
+    public void flushAll() {
+        flushLock.lock();
+        try {
+            write(entries.values());
+            evictIdle();
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Скидає незбережені зміни перед зупинкою застосунку.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushLock.lock();
+        try {
+            write(entries.values());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private void write(Collection<Entry> candidates) {
+        List<Pending> pending = new ArrayList<>();
+        for (Entry entry : candidates) {
+            ReentrantLock lock = stripe(entry.email);
+            lock.lock();
+            try {
+                if (entry.version != entry.flushedVersion) {
+                    Cart cart = copy(entry.cart);
+                    cart.setVersion(Math.max(cart.getVersion(), entry.storedVersion + 1));
+                    pending.add(new Pending(entry, cart, entry.version, entry.storedVersion));
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+        if (pending.isEmpty()) {
+            return;
+        }
+
+        try {
+            replaceItems(pending);
+        } catch (RuntimeException batchFailure) {
+            // Один некоректний кошик (наприклад, зі щойно видаленою стравою) не повинен блокувати решту.
+            for (Pending single : pending) {
+                try {
+                    replaceItems(List.of(single));
+                } catch (RuntimeException e) {
+                    log.warn("Failed to flush cart {} for {}", single.cart().getId(), single.entry().email, e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Записує кошики в окремій транзакції; записи в пам'яті позначаються збереженими лише після її фіксації.
+     */
+    private void replaceItems(List<Pending> pending) {
+        Map<Long, Long> expectedVersions = new HashMap<>();
+        pending.forEach(single -> expectedVersions.put(single.cart().getId(), single.expectedVersion()));
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<Long> stale = cartJdbcRepository.replaceItems(pending.stream().map(Pending::cart).toList(), expectedVersions);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pending.forEach(single -> finish(single, stale));
+                }
+            });
+        });
+    }
+
+    private void finish(Pending pending, Set<Long> stale) {
+        Entry entry = pending.entry();
+        ReentrantLock lock = stripe(entry.email);
+        lock.lock();
+        try {
+            if (stale.contains(pending.cart().getId())) {
+                if (entries.remove(entry.email, entry)) {
+                    log.warn("Cart {} for {} was changed outside the write-behind store, dropping {} unflushed change(s)",
+                            pending.cart().getId(), entry.email, entry.version - entry.flushedVersion);
+                }
+                return;
+            }
+            entry.flushedVersion = Math.max(entry.flushedVersion, pending.version());
+            entry.storedVersion = Math.max(entry.storedVersion, pending.cart().getVersion());
+            if (entry.cart.getVersion() < entry.storedVersion) {
+                entry.cart.setVersion(entry.storedVersion);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void evictIdle() {
+        long threshold = System.currentTimeMillis() - idleMillis;
+        for (Entry entry : entries.values()) {
+            ReentrantLock lock = stripe(entry.email);
+            lock.lock();
+            try {
+                if (entry.version == entry.flushedVersion && entry.lastAccess < threshold) {
+                    entries.remove(entry.email, entry);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Повертає запис кошика з пам'яті або завантажує його з БД. Викликається під замком смуги.
+     */
+    private Entry load(String email) {
+        Entry entry = entries.get(email);
+        if (entry != null) {
+            return entry;
+        }
+        Entry loaded = transactionTemplate.execute(status -> {
+            Cart cart = cartRepository.findByUserEmail(email).orElseGet(() -> createCartForUser(email));
+            Entry fresh = new Entry(email, detach(cart, menuCatalog.snapshot()));
+            fresh.storedVersion = cart.getVersion();
+            if (fresh.cart.getItems().size() != cart.getItems().size()) {
+                // Позиції з видаленими стравами відкинуто — цю зміну теж треба записати.
+                fresh.cart.setSubtotal(null);
+                fresh.cart.setItemCount(null);
+                fresh.version++;
+            }
+            return fresh;
+        });
+        entries.put(email, loaded);
+        return loaded;
+    }
+
+    private Cart createCartForUser(String email) {
+        User user = userRepository.findByEmail(email)
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        Cart cart = new Cart();
+        cart.setUser(user);
+        return cartRepository.save(cart);
+    }
+
+    /**
+     * Копіює кошик з БД у відокремлений об'єкт, підставляючи страви з поточного знімка меню.
+     * Позиції зі стравами, яких уже немає в меню, відкидаються.
+     */
+    private static Cart detach(Cart source, MenuSnapshot snapshot) {
+        Cart cart = new Cart();
+        cart.setId(source.getId());
+        cart.setUser(source.getUser());
+        cart.setVersion(source.getVersion());
+        cart.setUpdatedAt(source.getUpdatedAt());
+        cart.setSubtotal(source.getSubtotal());
+        cart.setItemCount(source.getItemCount());
+        for (CartItem sourceItem : source.getItems()) {
+            Optional<Dish> dish = snapshot.findDish(sourceItem.getDish().getId());
+            if (dish.isEmpty()) {
+                continue;
+            }
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setDish(dish.get());
+            item.setQuantity(sourceItem.getQuantity());
+            cart.getItems().add(item);
+        }
+        return cart;
+    }
+
+    private static Cart copy(Cart source) {
+        Cart cart = new Cart();
+        cart.setId(source.getId());
+        cart.setUser(source.getUser());
+        cart.setVersion(source.getVersion());
+        cart.setUpdatedAt(source.getUpdatedAt());
+        cart.setSubtotal(source.getSubtotal());
+        cart.setItemCount(source.getItemCount());
+        for (CartItem sourceItem : source.getItems()) {
+            CartItem item = new CartItem();
+            item.setId(sourceItem.getId());
+            item.setCart(cart);
+            item.setDish(sourceItem.getDish());
+            item.setQuantity(sourceItem.getQuantity());
+            cart.getItems().add(item);
+        }
+        return cart;
+    }
+
+    private ReentrantLock stripe(String email) {
+        return stripes[Math.floorMod(email.hashCode(), STRIPES)];
+    }
+
+    /**
+     * Кошик у пам'яті з лічильниками змін. Поля змінюються лише під замком смуги.
+     */
+    private static final class Entry {
+        private final String email;
+        private Cart cart;
+        /** Кількість змін з моменту завантаження. */
+        private long version;
+        /** Остання версія, записана в БД. */
+        private long flushedVersion;
+        /** Версія рядка кошика в БД, від якої зроблено зміни в пам'яті. */
+        private long storedVersion;
+        private long lastAccess = System.currentTimeMillis();
+
+        private Entry(String email, Cart cart) {
+            this.email = email;
+            this.cart = cart;
+        }
+    }
+
+    /**
+     * Знімок кошика, підготовлений до запису, версія, яку він представляє, і очікувана версія рядка в БД.
+     */
+    private record Pending(Entry entry, Cart cart, long version, long expectedVersion) {
+    }
+}
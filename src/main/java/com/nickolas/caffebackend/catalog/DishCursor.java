@@ -0,0 +1,75 @@
+package com.nickolas.caffebackend.catalog;
+
+import com.nickolas.caffebackend.model.Dish;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Непрозорий курсор продовження для пагінації страв.
+ * <p>
+ * Кодує ключ сортування (ціну або назву) та ідентифікатор останньої виданої страви,
+ * тож наступна сторінка починається одразу після неї незалежно від вставок і видалень.
+ */
+public final class DishCursor {
+    private static final String PREFIX = "v1";
+
+    private final DishSort sort;
+    private final double price;
+    private final String name;
+    private final long id;
+
+    private DishCursor(DishSort sort, double price, String name, long id) {
+        this.sort = sort;
+        this.price = price;
+        this.name = name;
+        this.id = id;
+    }
+
+    /**
+     * Створює курсор, що вказує на позицію після указаної страви.
+     *
+     * @param sort порядок сортування
+     * @param dish остання видана страва
+     * @return курсор
+     */
+    public static DishCursor after(DishSort sort, Dish dish) {
+        return new DishCursor(sort, dish.getPrice(), dish.getName() == null ? "" : dish.getName(), dish.getId());
+    }
+
+    /**
+     * Розбирає закодований курсор.
+     *
+     * @param token рядок курсора від клієнта
+     * @param sort  очікуваний порядок сортування
+     * @return курсор
+     * @throws IllegalArgumentException якщо курсор пошкоджений або створений для іншого сортування
+     */
+    public static DishCursor decode(String token, DishSort sort) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|", 5);
+            if (parts.length != 5 || !PREFIX.equals(parts[0]) || DishSort.valueOf(parts[1]) != sort) {
+                throw new IllegalArgumentException("Cursor does not match sort " + sort);
+            }
+            return new DishCursor(sort, Double.parseDouble(parts[2]), parts[4], Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+
+    /** Кодує курсор у рядок, безпечний для URL. */
+    public String encode() {
+        String raw = PREFIX + "|" + sort.name() + "|" + price + "|" + id + "|" + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /** Страва-зразок з ключами курсора для бінарного пошуку в упорядкованому списку. */
+    Dish probe() {
+        Dish probe = new Dish();
+        probe.setId(id);
+        probe.setPrice(price);
+        probe.setName(name);
+        return probe;
+    }
+}
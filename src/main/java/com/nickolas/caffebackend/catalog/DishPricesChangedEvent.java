@@ -0,0 +1,25 @@
+package com.nickolas.caffebackend.catalog;
+
+import java.util.Map;
+
+/**
+ * Подія зміни цін страв.
+ * <p>
+ * На відміну від {@link MenuChangedEvent}, надсилається одразу під час запису, всередині транзакції,
+ * що змінює страву, тож залежні SQL-оновлення фіксуються або відкочуються разом із нею.
+ */
+public class DishPricesChangedEvent {
+    private final Map<Long, Double> deltas;
+
+    /**
+     * @param deltas ідентифікатор страви → різниця між новою і старою ціною
+     */
+    public DishPricesChangedEvent(Map<Long, Double> deltas) {
+        this.deltas = deltas;
+    }
+
+    /** Ідентифікатор страви → різниця між новою і старою ціною. */
+    public Map<Long, Double> getDeltas() {
+        return deltas;
+    }
+}
@@ -0,0 +1,50 @@
+package com.nickolas.caffebackend.catalog;
+
+import com.nickolas.caffebackend.model.Dish;
+
+import java.util.Comparator;
+import java.util.Locale;
+
+/**
+ * Порядок сортування страв для курсорної пагінації.
+ * Кожен порядок повний: при однакових ключах страви впорядковуються за ідентифікатором.
+ */
+public enum DishSort {
+    /** За зростанням ціни. */
+    PRICE_ASC(MenuSnapshot.BY_PRICE),
+    /** За спаданням ціни. */
+    PRICE_DESC(MenuSnapshot.BY_PRICE.reversed()),
+    /** За назвою без урахування регістру. */
+    NAME(Comparator.comparing((Dish dish) -> dish.getName() == null ? "" : dish.getName(), String.CASE_INSENSITIVE_ORDER)
+            .thenComparing(Dish::getId));
+
+    private final Comparator<Dish> comparator;
+
+    DishSort(Comparator<Dish> comparator) {
+        this.comparator = comparator;
+    }
+
+    /** Компаратор, що задає порядок. */
+    public Comparator<Dish> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Розбирає параметр запиту: "price", "price_desc" або "name".
+     *
+     * @param value значення параметра (може бути порожнім)
+     * @return порядок сортування, за замовчуванням {@link #PRICE_ASC}
+     * @throws IllegalArgumentException якщо значення невідоме
+     */
+    public static DishSort parse(String value) {
+        if (value == null || value.isBlank()) {
+            return PRICE_ASC;
+        }
+        return switch (value.toLowerCase(Locale.ROOT)) {
+            case "price", "price_asc", "asc" -> PRICE_ASC;
+            case "price_desc", "desc" -> PRICE_DESC;
+            case "name" -> NAME;
+            default -> throw new IllegalArgumentException("Unknown sort: " + value);
+        };
+    }
+}
@@ -0,0 +1,110 @@
+package com.nickolas.caffebackend.catalog;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nickolas.caffebackend.model.Category;
+import com.nickolas.caffebackend.model.Dish;
+import com.nickolas.caffebackend.response.DishSummary;
+import com.nickolas.caffebackend.response.MenuBundleResponse;
+import com.nickolas.caffebackend.response.MenuBundleSection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Кеш повного меню у вигляді готових байтів.
+ * <p>
+ * Пакет серіалізується в JSON і стискається gzip лише один раз для кожної версії меню;
+ * запити лише записують готовий масив байтів у відповідь.
+ */
+@Component
+public class MenuBundleCache {
+    private final MenuCatalog menuCatalog;
+    private final ObjectMapper objectMapper;
+    private volatile Bundle current;
+
+    /**
+     * Конструктор з впровадженням залежностей.
+     *
+     * @param menuCatalog  модель читання меню
+     * @param objectMapper серіалізатор JSON
+     */
+    @Autowired
+    public MenuBundleCache(MenuCatalog menuCatalog, ObjectMapper objectMapper) {
+        this.menuCatalog = menuCatalog;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Повертає пакет для поточної версії меню, будуючи його, якщо меню змінилося.
+     *
+     * @return готовий пакет
+     */
+    public Bundle bundle() {
+        MenuSnapshot snapshot = menuCatalog.snapshot();
+        Bundle bundle = current;
+        if (bundle != null && bundle.version() == snapshot.getVersion()) {
+            return bundle;
+        }
+        synchronized (this) {
+            bundle = current;
+            if (bundle == null || bundle.version() != snapshot.getVersion()) {
+                bundle = build(snapshot);
+                current = bundle;
+            }
+            return bundle;
+        }
+    }
+
+    private Bundle build(MenuSnapshot snapshot) {
+        Map<Long, List<DishSummary>> byCategory = new HashMap<>();
+        List<DishSummary> uncategorized = new ArrayList<>();
+        for (Dish dish : snapshot.getDishes()) {
+            if (dish.getCategory() == null) {
+                uncategorized.add(DishSummary.from(dish));
+            } else {
+                byCategory.computeIfAbsent(dish.getCategory().getId(), id -> new ArrayList<>()).add(DishSummary.from(dish));
+            }
+        }
+        List<MenuBundleSection> sections = new ArrayList<>();
+        for (Category category : snapshot.getCategories()) {
+            sections.add(new MenuBundleSection(category.getId(), category.getName(), category.getDescription(),
+                    category.getImageUrl(), byCategory.getOrDefault(category.getId(), List.of())));
+        }
+
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(new MenuBundleResponse(snapshot.getVersion(), sections, uncategorized));
+            return new Bundle(snapshot.getVersion(), json, gzip(json));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize menu bundle", e);
+        }
+    }
+
+    private static byte[] gzip(byte[] data) {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(data.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer)) {
+            gzip.write(data);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Готовий пакет меню.
+     *
+     * @param version версія меню
+     * @param json    JSON без стиснення
+     * @param gzip    той самий JSON, стиснений gzip
+     */
+    public record Bundle(long version, byte[] json, byte[] gzip) {
+    }
+}
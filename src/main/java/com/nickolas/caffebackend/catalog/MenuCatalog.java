@@ -0,0 +1,179 @@
+package com.nickolas.caffebackend.catalog;
+
+import com.nickolas.caffebackend.model.Category;
+import com.nickolas.caffebackend.model.Dish;
+import com.nickolas.caffebackend.repository.CategoryRepository;
+import com.nickolas.caffebackend.repository.DishRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.UnaryOperator;
+
+/**
+ * Внутрішньопроцесна модель читання меню.
+ * <p>
+ * Зберігає поточний {@link MenuSnapshot} і атомарно публікує нову версію після кожної зміни
+ * страв чи категорій. Читачі ніколи не блокуються і не звертаються до БД,
+ * записи серіалізуються між собою. Кожна публікація супроводжується {@link MenuChangedEvent}.
+ * <p>
+ * Зміни, зроблені всередині транзакції, публікуються лише після її фіксації, тож відкат не потрапляє
+ * ні в знімок, ні в похідні структури. Зміни цін натомість повідомляються одразу
+ * подією {@link DishPricesChangedEvent} через {@link #dishPriceChanged}, щоб пов'язані оновлення кошиків
+ * виконалися в тій самій транзакції. Повне перезавантаження цін не порівнює: воно не знає, які зміни
+ * вже враховано в сумах кошиків.
+ */
+@Component
+public class MenuCatalog {
+    private final DishRepository dishRepository;
+    private final CategoryRepository categoryRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final AtomicReference<MenuSnapshot> current = new AtomicReference<>();
+    private final Object writeLock = new Object();
+    /** Ідентифікатор запуску, щоб ETag різних процесів не збігалися після перезапуску. */
+    private final String bootId = Long.toString(System.currentTimeMillis(), 36);
+
+    /**
+     * Конструктор з впровадженням залежностей.
+     *
+     * @param dishRepository     репозиторій страв
+     * @param categoryRepository репозиторій категорій
+     * @param eventPublisher     публікатор подій зміни меню
+     */
+    @Autowired
+    public MenuCatalog(DishRepository dishRepository, CategoryRepository categoryRepository,
+                       ApplicationEventPublisher eventPublisher) {
+        this.dishRepository = dishRepository;
+        this.categoryRepository = categoryRepository;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Завантажує знімок меню одразу після старту застосунку.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        reload();
+    }
+
+    /**
+     * Повертає поточний знімок меню, завантажуючи його при першому зверненні.
+     *
+     * @return поточний знімок
+     */
+    public MenuSnapshot snapshot() {
+        MenuSnapshot snapshot = current.get();
+        return snapshot != null ? snapshot : reload();
+    }
+
+    /**
+     * Сильний ETag поточної версії меню для умовних GET-запитів.
+     * Заголовок Last-Modified поруч з ним не надсилається: дата HTTP має точність до секунди,
+     * і дві версії меню, опубліковані протягом однієї секунди, дали б хибну відповідь 304.
+     *
+     * @return значення ETag у лапках
+     */
+    public String etag() {
+        return "\"menu-" + bootId + "-" + snapshot().getVersion() + "\"";
+    }
+
+    /**
+     * Повністю перечитує меню з БД і публікує новий знімок.
+     *
+     * @return опублікований знімок
+     */
+    public MenuSnapshot reload() {
+        synchronized (writeLock) {
+            MenuSnapshot previous = current.get();
+            long version = previous == null ? 1 : previous.getVersion() + 1;
+            MenuSnapshot next = MenuSnapshot.of(version, categoryRepository.findAll(), dishRepository.findAllWithDetails());
+            current.set(next);
+            eventPublisher.publishEvent(new MenuChangedEvent(previous, next, null));
+            return next;
+        }
+    }
+
+    /**
+     * Публікує знімок зі створеною або оновленою стравою.
+     *
+     * @param dish збережена страва з інгредієнтами
+     */
+    public void dishSaved(Dish dish) {
+        publish(snapshot -> snapshot.withDish(dish), Set.of(dish.getId()));
+    }
+
+    /**
+     * Публікує знімок без видаленої страви.
+     *
+     * @param dishId ідентифікатор страви
+     */
+    public void dishDeleted(Long dishId) {
+        publish(snapshot -> snapshot.withoutDish(dishId), Set.of(dishId));
+    }
+
+    /**
+     * Публікує знімок зі створеною або оновленою категорією.
+     *
+     * @param category збережена категорія
+     */
+    public void categorySaved(Category category) {
+        publish(snapshot -> snapshot.withCategory(category), Set.of());
+    }
+
+    /**
+     * Публікує знімок без видаленої категорії.
+     *
+     * @param categoryId ідентифікатор категорії
+     */
+    public void categoryDeleted(Long categoryId) {
+        publish(snapshot -> snapshot.withoutCategory(categoryId), Set.of());
+    }
+
+    /**
+     * Повідомляє про зміну ціни страви в поточній транзакції.
+     * Стара ціна має бути прочитана з БД із блокуванням рядка страви, а не зі знімка: знімок оновлюється
+     * лише після фіксації, тож дві конкурентні зміни однієї страви порахували б різницю від тієї самої ціни.
+     *
+     * @param dishId        ідентифікатор страви
+     * @param previousPrice ціна в БД до зміни
+     * @param newPrice      нова ціна
+     */
+    public void dishPriceChanged(Long dishId, double previousPrice, double newPrice) {
+        if (previousPrice != newPrice) {
+            eventPublisher.publishEvent(new DishPricesChangedEvent(Map.of(dishId, newPrice - previousPrice)));
+        }
+    }
+
+    private void publish(UnaryOperator<MenuSnapshot> change, Set<Long> changedDishIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(change, changedDishIds);
+                }
+            });
+        } else {
+            apply(change, changedDishIds);
+        }
+    }
+
+    private void apply(UnaryOperator<MenuSnapshot> change, Set<Long> changedDishIds) {
+        synchronized (writeLock) {
+            MenuSnapshot previous = current.get();
+            if (previous == null) {
+                reload();
+                return;
+            }
+            MenuSnapshot next = change.apply(previous);
+            current.set(next);
+            eventPublisher.publishEvent(new MenuChangedEvent(previous, next, changedDishIds));
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.nickolas.caffebackend.catalog;
+
+import java.util.Set;
+
+/**
+ * Подія публікації нового знімка меню.
+ * <p>
+ * Надсилається синхронно після фіксації зміни, тож слухачі отримують події в порядку версій
+ * і можуть інкрементально оновлювати похідні структури (індекси, агрегати, кеші).
+ * Відкочені зміни подій не породжують.
+ */
+public class MenuChangedEvent {
+    private final MenuSnapshot previous;
+    private final MenuSnapshot current;
+    private final Set<Long> changedDishIds;
+
+    /**
+     * @param previous       попередній знімок або {@code null}, якщо це перше завантаження
+     * @param current        новий знімок
+     * @param changedDishIds ідентифікатори змінених або видалених страв;
+     *                       {@code null} означає повне перезавантаження меню
+     */
+    public MenuChangedEvent(MenuSnapshot previous, MenuSnapshot current, Set<Long> changedDishIds) {
+        this.previous = previous;
+        this.current = current;
+        this.changedDishIds = changedDishIds;
+    }
+
+    /** Попередній знімок або {@code null}. */
+    public MenuSnapshot getPrevious() {
+        return previous;
+    }
+
+    /** Новий знімок. */
+    public MenuSnapshot getCurrent() {
+        return current;
+    }
+
+    /** Ідентифікатори змінених страв або {@code null} при повному перезавантаженні. */
+    public Set<Long> getChangedDishIds() {
+        return changedDishIds;
+    }
+
+    /** Чи є подія повним перезавантаженням меню. */
+    public boolean isFullReload() {
+        return changedDishIds == null || previous == null;
+    }
+}
@@ -0,0 +1,139 @@
+package com.nickolas.caffebackend.catalog;
+
+import com.nickolas.caffebackend.model.Category;
+import com.nickolas.caffebackend.model.Dish;
+import com.nickolas.caffebackend.response.DishFacetsResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Інкрементально підтримувані агрегати для фасетних фільтрів меню.
+ * <p>
+ * Для всього меню та для кожної категорії зберігаються кількість страв, гістограма цін
+ * і впорядкований набір цін для меж. Агрегати оновлюються за подіями {@link MenuChangedEvent}:
+ * стара версія зміненої страви віднімається, нова додається, тож запит фасетів
+ * не потребує ані GROUP BY, ані перебору страв.
+ */
+@Component
+public class MenuFacets {
+    private final double bucketWidth;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Aggregate all = new Aggregate();
+    private final Map<Long, Aggregate> byCategory = new HashMap<>();
+
+    /**
+     * @param bucketWidth ширина цінового інтервалу гістограми
+     */
+    public MenuFacets(@Value("${menu.facets.price-bucket-width:50}") double bucketWidth) {
+        this.bucketWidth = bucketWidth;
+    }
+
+    /**
+     * Оновлює агрегати відповідно до нового знімка меню.
+     *
+     * @param event подія зміни меню
+     */
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (event.isFullReload()) {
+                all.clear();
+                byCategory.clear();
+                event.getCurrent().getDishes().forEach(dish -> apply(dish, 1));
+                return;
+            }
+            for (Long dishId : event.getChangedDishIds()) {
+                event.getPrevious().findDish(dishId).ifPresent(dish -> apply(dish, -1));
+                event.getCurrent().findDish(dishId).ifPresent(dish -> apply(dish, 1));
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Повертає фасети для всього меню або однієї категорії.
+     *
+     * @param categoryId ідентифікатор категорії або {@code null} для всього меню
+     * @param snapshot   знімок меню для назв категорій
+     * @return фасети
+     */
+    public DishFacetsResponse facets(Long categoryId, MenuSnapshot snapshot) {
+        lock.readLock().lock();
+        try {
+            Aggregate aggregate = categoryId == null ? all : byCategory.getOrDefault(categoryId, new Aggregate());
+            List<DishFacetsResponse.CategoryCount> categories = new ArrayList<>();
+            for (Category category : snapshot.getCategories()) {
+                if (categoryId != null && !categoryId.equals(category.getId())) {
+                    continue;
+                }
+                Aggregate categoryAggregate = byCategory.get(category.getId());
+                categories.add(new DishFacetsResponse.CategoryCount(category.getId(), category.getName(),
+                        categoryAggregate == null ? 0 : categoryAggregate.count));
+            }
+            List<DishFacetsResponse.PriceBucket> buckets = new ArrayList<>();
+            aggregate.buckets.forEach((bucket, count) ->
+                    buckets.add(new DishFacetsResponse.PriceBucket(bucket * bucketWidth, (bucket + 1) * bucketWidth, count)));
+            return new DishFacetsResponse(
+                    aggregate.count,
+                    aggregate.prices.isEmpty() ? null : aggregate.prices.firstKey(),
+                    aggregate.prices.isEmpty() ? null : aggregate.prices.lastKey(),
+                    buckets,
+                    categories);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void apply(Dish dish, int delta) {
+        long bucket = (long) Math.floor(dish.getPrice() / bucketWidth);
+        all.apply(dish.getPrice(), bucket, delta);
+        if (dish.getCategory() != null) {
+            Long categoryId = dish.getCategory().getId();
+            Aggregate aggregate = byCategory.computeIfAbsent(categoryId, id -> new Aggregate());
+            aggregate.apply(dish.getPrice(), bucket, delta);
+            if (aggregate.count == 0) {
+                byCategory.remove(categoryId);
+            }
+        }
+    }
+
+    /**
+     * Лічильники однієї вибірки страв.
+     */
+    private static final class Aggregate {
+        private long count;
+        private final TreeMap<Double, Long> prices = new TreeMap<>();
+        private final TreeMap<Long, Long> buckets = new TreeMap<>();
+
+        void apply(double price, long bucket, int delta) {
+            count += delta;
+            adjust(prices, price, delta);
+            adjust(buckets, bucket, delta);
+        }
+
+        void clear() {
+            count = 0;
+            prices.clear();
+            buckets.clear();
+        }
+
+        private static <K> void adjust(Map<K, Long> counts, K key, int delta) {
+            long next = counts.getOrDefault(key, 0L) + delta;
+            if (next <= 0) {
+                counts.remove(key);
+            } else {
+                counts.put(key, next);
+            }
+        }
+    }
+}
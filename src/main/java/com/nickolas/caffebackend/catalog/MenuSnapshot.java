@@ -0,0 +1,394 @@
+package com.nickolas.caffebackend.catalog;
+
+import com.nickolas.caffebackend.model.Category;
+import com.nickolas.caffebackend.model.Dish;
+import com.nickolas.caffebackend.model.Ingredient;
+import com.nickolas.caffebackend.model.IngredientStock;
+import com.nickolas.caffebackend.response.CursorPage;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+/**
+ * Незмінний знімок меню: страви, категорії та інгредієнти.
+ * <p>
+ * Усі читання каталогу обслуговуються з цього знімка без звернення до БД.
+ * Кожна зміна меню створює новий знімок з наступною версією, старий при цьому не змінюється.
+ * Об'єкти, що повертаються зі знімка, є відокремленими копіями сутностей і не повинні змінюватися.
+ */
+public final class MenuSnapshot {
+    /** Порядок страв за ціною з ідентифікатором як другим ключем. */
+    static final Comparator<Dish> BY_PRICE = Comparator.comparingDouble(Dish::getPrice).thenComparing(Dish::getId);
+
+    private final long version;
+    private final Instant publishedAt;
+    private final List<Category> categories;
+    private final Map<Long, Category> categoriesById;
+    private final List<Dish> dishes;
+    private final Map<Long, Dish> dishesById;
+    private final Map<DishSort, List<Dish>> dishesBySort;
+    private final Map<Long, Map<DishSort, List<Dish>>> dishesByCategoryBySort;
+
+    private MenuSnapshot(long version, Collection<Category> categories, Collection<Dish> dishes) {
+        this.version = version;
+        this.publishedAt = Instant.now();
+
+        List<Category> sortedCategories = new ArrayList<>(categories);
+        sortedCategories.sort(Comparator.comparing(Category::getId));
+        this.categories = List.copyOf(sortedCategories);
+        Map<Long, Category> byId = new LinkedHashMap<>();
+        sortedCategories.forEach(category -> byId.put(category.getId(), category));
+        this.categoriesById = Map.copyOf(byId);
+
+        List<Dish> sortedDishes = new ArrayList<>(dishes);
+        sortedDishes.sort(Comparator.comparing(Dish::getId));
+        this.dishes = List.copyOf(sortedDishes);
+        Map<Long, Dish> dishesMap = new HashMap<>();
+        Map<Long, List<Dish>> byCategory = new HashMap<>();
+        for (Dish dish : sortedDishes) {
+            dishesMap.put(dish.getId(), dish);
+            if (dish.getCategory() != null) {
+                byCategory.computeIfAbsent(dish.getCategory().getId(), id -> new ArrayList<>()).add(dish);
+            }
+        }
+        this.dishesById = Map.copyOf(dishesMap);
+        this.dishesBySort = sortAll(sortedDishes);
+        Map<Long, Map<DishSort, List<Dish>>> byCategorySorted = new HashMap<>();
+        byCategory.forEach((id, list) -> byCategorySorted.put(id, sortAll(list)));
+        this.dishesByCategoryBySort = Map.copyOf(byCategorySorted);
+    }
+
+    /**
+     * Створює знімок із завантажених сутностей, копіюючи їх.
+     *
+     * @param version    версія знімка
+     * @param categories категорії з БД
+     * @param dishes     страви з БД з ініціалізованими інгредієнтами
+     * @return новий знімок
+     */
+    static MenuSnapshot of(long version, Collection<Category> categories, Collection<Dish> dishes) {
+        Map<Long, Category> categoryCopies = new HashMap<>();
+        categories.forEach(category -> categoryCopies.put(category.getId(), copyOf(category)));
+        List<Dish> dishCopies = dishes.stream()
+                .map(dish -> copyOf(dish, dish.getCategory() == null ? null : categoryCopies.get(dish.getCategory().getId())))
+                .toList();
+        return new MenuSnapshot(version, categoryCopies.values(), dishCopies);
+    }
+
+    /**
+     * Повертає новий знімок, у якому страву додано або замінено.
+     *
+     * @param dish збережена страва
+     * @return знімок наступної версії
+     */
+    MenuSnapshot withDish(Dish dish) {
+        Category category = dish.getCategory() == null ? null : categoriesById.get(dish.getCategory().getId());
+        if (category == null && dish.getCategory() != null) {
+            category = copyOf(dish.getCategory());
+        }
+        Map<Long, Dish> next = new HashMap<>(dishesById);
+        next.put(dish.getId(), copyOf(dish, category));
+        return new MenuSnapshot(version + 1, categories, next.values());
+    }
+
+    /**
+     * Повертає новий знімок без указаної страви.
+     *
+     * @param dishId ідентифікатор видаленої страви
+     * @return знімок наступної версії
+     */
+    MenuSnapshot withoutDish(Long dishId) {
+        Map<Long, Dish> next = new HashMap<>(dishesById);
+        next.remove(dishId);
+        return new MenuSnapshot(version + 1, categories, next.values());
+    }
+
+    /**
+     * Повертає новий знімок, у якому категорію додано або замінено.
+     * Страви цієї категорії отримують посилання на нову копію.
+     *
+     * @param category збережена категорія
+     * @return знімок наступної версії
+     */
+    MenuSnapshot withCategory(Category category) {
+        Category copy = copyOf(category);
+        Map<Long, Category> nextCategories = new HashMap<>(categoriesById);
+        nextCategories.put(copy.getId(), copy);
+        List<Dish> nextDishes = dishes.stream()
+                .map(dish -> dish.getCategory() != null && copy.getId().equals(dish.getCategory().getId())
+                        ? copyOf(dish, copy)
+                        : dish)
+                .toList();
+        return new MenuSnapshot(version + 1, nextCategories.values(), nextDishes);
+    }
+
+    /**
+     * Повертає новий знімок без указаної категорії.
+     * Страви цієї категорії залишаються без категорії, як і після повного перечитування з БД,
+     * тож не посилаються на видалену копію.
+     *
+     * @param categoryId ідентифікатор видаленої категорії
+     * @return знімок наступної версії
+     */
+    MenuSnapshot withoutCategory(Long categoryId) {
+        Map<Long, Category> nextCategories = new HashMap<>(categoriesById);
+        nextCategories.remove(categoryId);
+        List<Dish> nextDishes = dishes.stream()
+                .map(dish -> dish.getCategory() != null && categoryId.equals(dish.getCategory().getId())
+                        ? copyOf(dish, null)
+                        : dish)
+                .toList();
+        return new MenuSnapshot(version + 1, nextCategories.values(), nextDishes);
+    }
+
+    /** Версія знімка, що зростає з кожною зміною меню. */
+    public long getVersion() {
+        return version;
+    }
+
+    /** Момент публікації знімка. */
+    public Instant getPublishedAt() {
+        return publishedAt;
+    }
+
+    /** Усі категорії, впорядковані за ідентифікатором. */
+    public List<Category> getCategories() {
+        return categories;
+    }
+
+    /** Усі страви, впорядковані за ідентифікатором. */
+    public List<Dish> getDishes() {
+        return dishes;
+    }
+
+    /**
+     * Шукає категорію за ідентифікатором.
+     *
+     * @param id ідентифікатор категорії
+     * @return категорія або порожній {@link Optional}
+     */
+    public Optional<Category> findCategory(Long id) {
+        return Optional.ofNullable(id == null ? null : categoriesById.get(id));
+    }
+
+    /**
+     * Шукає страву за ідентифікатором.
+     *
+     * @param id ідентифікатор страви
+     * @return страва або порожній {@link Optional}
+     */
+    public Optional<Dish> findDish(Long id) {
+        return Optional.ofNullable(id == null ? null : dishesById.get(id));
+    }
+
+    /**
+     * Повертає сторінку всіх страв у порядку ідентифікаторів.
+     *
+     * @param pageable параметри пагінації
+     * @return сторінка страв
+     */
+    public Page<Dish> findAll(Pageable pageable) {
+        return page(dishes.stream(), dishes.size(), pageable);
+    }
+
+    /**
+     * Повертає страви категорії з фільтрами за ціною та назвою і сортуванням за ціною.
+     * Без сортування страви повертаються в порядку ідентифікаторів,
+     * а за наявності цінового фільтра — за зростанням ціни.
+     *
+     * @param categoryId ідентифікатор категорії
+     * @param minPrice   мінімальна ціна (необов'язково)
+     * @param maxPrice   максимальна ціна (необов'язково)
+     * @param sortOrder  "asc" або "desc" (необов'язково)
+     * @param name       фрагмент назви (необов'язково)
+     * @param pageable   параметри пагінації
+     * @return сторінка страв
+     */
+    public Page<Dish> findByCategory(Long categoryId, Double minPrice, Double maxPrice,
+                                     String sortOrder, String name, Pageable pageable) {
+        List<Dish> byPrice = sortedDishes(categoryId, DishSort.PRICE_ASC);
+        Stream<Dish> ordered;
+        if ("desc".equalsIgnoreCase(sortOrder)) {
+            ordered = byPrice.reversed().stream();
+        } else if ("asc".equalsIgnoreCase(sortOrder) || minPrice != null || maxPrice != null) {
+            ordered = byPrice.stream();
+        } else {
+            ordered = byPrice.stream().sorted(Comparator.comparing(Dish::getId));
+        }
+
+        Predicate<Dish> filter = dish -> (minPrice == null || dish.getPrice() >= minPrice)
+                && (maxPrice == null || dish.getPrice() <= maxPrice);
+        if (name != null && !name.isBlank()) {
+            String needle = name.toLowerCase(Locale.ROOT);
+            filter = filter.and(dish -> dish.getName() != null && dish.getName().toLowerCase(Locale.ROOT).contains(needle));
+        }
+
+        List<Dish> matched = ordered.filter(filter).toList();
+        return page(matched.stream(), matched.size(), pageable);
+    }
+
+    /**
+     * Курсорна пагінація страв: наступна сторінка починається одразу після позиції курсора.
+     * <p>
+     * Позиція курсора та межі цінового діапазону знаходяться бінарним пошуком
+     * в упорядкованому списку, тож вартість сторінки не залежить від її глибини.
+     *
+     * @param categoryId   ідентифікатор категорії або {@code null} для всього меню
+     * @param sort         порядок сортування
+     * @param after        курсор попередньої сторінки або {@code null} для першої
+     * @param minPrice     мінімальна ціна (необов'язково)
+     * @param maxPrice     максимальна ціна (необов'язково)
+     * @param name         фрагмент назви (необов'язково)
+     * @param limit        розмір сторінки
+     * @param includeTotal чи рахувати загальну кількість збігів
+     * @return сторінка з курсором продовження
+     */
+    public CursorPage<Dish> scroll(Long categoryId, DishSort sort, DishCursor after, Double minPrice, Double maxPrice,
+                                   String name, int limit, boolean includeTotal) {
+        List<Dish> ordered = sortedDishes(categoryId, sort);
+        int start = 0;
+        if (sort == DishSort.PRICE_ASC && minPrice != null) {
+            start = seek(ordered, sort, price(minPrice, Long.MIN_VALUE));
+        } else if (sort == DishSort.PRICE_DESC && maxPrice != null) {
+            start = seek(ordered, sort, price(maxPrice, Long.MAX_VALUE));
+        }
+        int rangeStart = start;
+        if (after != null) {
+            start = Math.max(start, seek(ordered, sort, after.probe()));
+        }
+
+        Predicate<Dish> inRange = priceBound(sort, minPrice, maxPrice);
+        Predicate<Dish> filter = dish -> (minPrice == null || dish.getPrice() >= minPrice)
+                && (maxPrice == null || dish.getPrice() <= maxPrice);
+        if (name != null && !name.isBlank()) {
+            String needle = name.toLowerCase(Locale.ROOT);
+            filter = filter.and(dish -> dish.getName() != null && dish.getName().toLowerCase(Locale.ROOT).contains(needle));
+        }
+
+        List<Dish> items = new ArrayList<>(limit);
+        boolean hasMore = false;
+        for (int i = start; i < ordered.size() && inRange.test(ordered.get(i)); i++) {
+            Dish dish = ordered.get(i);
+            if (!filter.test(dish)) {
+                continue;
+            }
+            if (items.size() == limit) {
+                hasMore = true;
+                break;
+            }
+            items.add(dish);
+        }
+
+        Long total = null;
+        if (includeTotal) {
+            Predicate<Dish> countFilter = filter;
+            total = ordered.subList(rangeStart, ordered.size()).stream()
+                    .takeWhile(inRange)
+                    .filter(countFilter)
+                    .count();
+        }
+        String nextCursor = hasMore ? DishCursor.after(sort, items.get(items.size() - 1)).encode() : null;
+        return new CursorPage<>(List.copyOf(items), nextCursor, hasMore, total);
+    }
+
+    private List<Dish> sortedDishes(Long categoryId, DishSort sort) {
+        if (categoryId == null) {
+            return dishesBySort.get(sort);
+        }
+        return dishesByCategoryBySort.getOrDefault(categoryId, Map.of()).getOrDefault(sort, List.of());
+    }
+
+    private static int seek(List<Dish> ordered, DishSort sort, Dish probe) {
+        int position = Collections.binarySearch(ordered, probe, sort.comparator());
+        return position >= 0 ? position + 1 : -(position + 1);
+    }
+
+    private static Dish price(double price, long id) {
+        Dish probe = new Dish();
+        probe.setPrice(price);
+        probe.setId(id);
+        return probe;
+    }
+
+    private static Predicate<Dish> priceBound(DishSort sort, Double minPrice, Double maxPrice) {
+        if (sort == DishSort.PRICE_ASC && maxPrice != null) {
+            return dish -> dish.getPrice() <= maxPrice;
+        }
+        if (sort == DishSort.PRICE_DESC && minPrice != null) {
+            return dish -> dish.getPrice() >= minPrice;
+        }
+        return dish -> true;
+    }
+
+    private static Map<DishSort, List<Dish>> sortAll(List<Dish> dishes) {
+        Map<DishSort, List<Dish>> sorted = new EnumMap<>(DishSort.class);
+        for (DishSort sort : DishSort.values()) {
+            sorted.put(sort, dishes.stream().sorted(sort.comparator()).toList());
+        }
+        return Collections.unmodifiableMap(sorted);
+    }
+
+    private static Page<Dish> page(Stream<Dish> source, int total, Pageable pageable) {
+        List<Dish> content = source
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .toList();
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    private static Category copyOf(Category source) {
+        Category copy = new Category();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setImageUrl(source.getImageUrl());
+        return copy;
+    }
+
+    private static Dish copyOf(Dish source, Category category) {
+        Dish copy = new Dish();
+        copy.setId(source.getId());
+        copy.setName(source.getName());
+        copy.setDescription(source.getDescription());
+        copy.setPrice(source.getPrice());
+        copy.setImageUrl(source.getImageUrl());
+        copy.setWeight(source.getWeight());
+        copy.setPreparationTime(source.getPreparationTime());
+        copy.setCategory(category);
+
+        List<Ingredient> ingredients = new ArrayList<>();
+        if (source.getIngredients() != null) {
+            for (Ingredient ingredient : source.getIngredients()) {
+                Ingredient ingredientCopy = new Ingredient();
+                ingredientCopy.setId(ingredient.getId());
+                ingredientCopy.setName(ingredient.getName());
+                ingredientCopy.setQuantity(ingredient.getQuantity());
+                ingredientCopy.setUnit(ingredient.getUnit());
+                IngredientStock stock = ingredient.getIngredientStock();
+                if (stock != null) {
+                    ingredientCopy.setIngredientStock(new IngredientStock(stock.getId(), stock.getName(),
+                            stock.getAvailableQuantity(), stock.getUnit()));
+                }
+                ingredientCopy.setDish(copy);
+                ingredients.add(ingredientCopy);
+            }
+        }
+        copy.setIngredients(List.copyOf(ingredients));
+        return copy;
+    }
+}
@@ -50,4 +50,27 @@ public class JwtProvider {
             return null;
         }
     }
+
+    /**
+     * Повертає ролі з токена.
+     *
+     * @param token JWT з префіксом "Bearer " або без нього
+     * @return ролі користувача; порожня множина, якщо токен недійсний
+     */
+    public Set<String> getRolesFromToken(String token) {
+        try {
+            Claims claims = Jwts.parserBuilder()
+                    .setSigningKey(key)
+                    .build()
+                    .parseClaimsJws(token.replace("Bearer ", ""))
+                    .getBody();
+            String roles = claims.get("roles", String.class);
+            if (roles == null || roles.isBlank()) {
+                return Set.of();
+            }
+            return Set.of(roles.split(","));
+        } catch (Exception e) {
+            return Set.of();
+        }
+    }
 }
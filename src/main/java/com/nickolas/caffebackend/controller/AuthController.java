@@ -5,9 +5,12 @@ import com.nickolas.caffebackend.request.SigninRequest;
 import com.nickolas.caffebackend.request.SignupRequest;
 import com.nickolas.caffebackend.response.AuthResponse;
 import com.nickolas.caffebackend.service.AuthService;
+import com.nickolas.caffebackend.service.CartService;
 import com.nickolas.caffebackend.service.UserService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindingResult;
@@ -28,8 +31,11 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 @RequestMapping("/auth")
 public class AuthController {
+    private static final Logger log = LoggerFactory.getLogger(AuthController.class);
+
     private final AuthService authService;
     private final UserService userService;
+    private final CartService cartService;
 
     /**
      * Обробляє запит на реєстрацію нового користувача.
@@ -67,6 +73,7 @@ public class AuthController {
 
     /**
      * Обробляє запит на вхід до системи.
+     * Якщо передано токен гостьового кошика, його вміст переноситься в кошик користувача.
      *
      * @param signinRequest Об'єкт, що містить дані для входу (логін, пароль)
      * @return {@link ResponseEntity} з JWT-токеном у разі успішної автентифікації,
@@ -78,6 +85,16 @@ public class AuthController {
         try{
             AuthResponse authResponse = authService.authenticateUser(signinRequest);
             authResponse.setMessage("Автентифікація успішна");
+            if (signinRequest.getGuestCart() != null) {
+                try {
+                    cartService.mergeGuestCart(signinRequest.getEmail(), signinRequest.getGuestCart());
+                } catch (IllegalArgumentException e) {
+                    // Пошкоджений гостьовий кошик не повинен заважати входу.
+                    log.debug("Ignoring invalid guest cart on signin: {}", e.getMessage());
+                } catch (RuntimeException e) {
+                    log.warn("Failed to merge guest cart for {}", signinRequest.getEmail(), e);
+                }
+            }
             return new ResponseEntity<>(authResponse, HttpStatus.OK);
         }catch(RuntimeException e){
             AuthResponse authResponse = new AuthResponse();
@@ -1,12 +1,18 @@
 package com.nickolas.caffebackend.controller;
 
 import com.nickolas.caffebackend.config.JwtProvider;
+import com.nickolas.caffebackend.exception.CartConflictException;
 import com.nickolas.caffebackend.model.Cart;
 import com.nickolas.caffebackend.model.CartItem;
+import com.nickolas.caffebackend.request.CartBatchRequest;
 import com.nickolas.caffebackend.request.CartItemRequest;
+import com.nickolas.caffebackend.response.CartDeltaResponse;
+import com.nickolas.caffebackend.response.CartResponse;
+import com.nickolas.caffebackend.response.GuestCartResponse;
 import com.nickolas.caffebackend.service.CartService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -17,6 +23,7 @@ import org.springframework.web.bind.annotation.*;
 @RestController
 @RequestMapping("/api/cart")
 public class CartController {
+    private static final String GUEST_CART_HEADER = "X-Guest-Cart";
 
     @Autowired
     private CartService cartService;
@@ -28,17 +35,16 @@ public class CartController {
      * Отримати поточний кошик користувача.
      *
      * @param request HTTP-запит, який містить JWT-токен в заголовку Authorization
-     * @return Об'єкт {@link Cart} у відповіді або статус 401, якщо користувач неавторизований
+     * @return Кошик у відповіді або статус 401, якщо користувач неавторизований
      */
     @GetMapping
-    public ResponseEntity<Cart> getCart(HttpServletRequest request) {
+    public ResponseEntity<CartResponse> getCart(HttpServletRequest request) {
         String email = jwtProvider.getEmailFromToken(request.getHeader("Authorization"));
         if (email == null) {
             return ResponseEntity.status(401).body(null); // Unauthorized
         }
 
-        Cart cart = cartService.getCartByUserEmail(email);
-        return ResponseEntity.ok(cart);
+        return ResponseEntity.ok(cartService.getCartView(email));
     }
 
     /**
@@ -49,14 +55,14 @@ public class CartController {
      * @return Оновлений кошик або статус 401 у разі відсутності авторизації
      */
     @PostMapping("/add")
-    public ResponseEntity<Cart> addToCart(HttpServletRequest request, @RequestBody CartItemRequest cartItemRequest) {
+    public ResponseEntity<CartResponse> addToCart(HttpServletRequest request, @RequestBody CartItemRequest cartItemRequest) {
         String email = jwtProvider.getEmailFromToken(request.getHeader("Authorization"));
         if (email == null) {
             return ResponseEntity.status(401).body(null);
         }
 
         Cart cart = cartService.addDishToCart(email, cartItemRequest.getDishId(), cartItemRequest.getQuantity());
-        return ResponseEntity.ok(cart);
+        return ResponseEntity.ok(cartService.toResponse(cart));
     }
 
     /**
@@ -67,14 +73,14 @@ public class CartController {
      * @return Оновлений кошик або статус 401, якщо користувач неавторизований
      */
     @PutMapping("/update")
-    public ResponseEntity<Cart> updateQuantity(HttpServletRequest request, @RequestBody CartItemRequest cartItemRequest) {
+    public ResponseEntity<CartResponse> updateQuantity(HttpServletRequest request, @RequestBody CartItemRequest cartItemRequest) {
         String email = jwtProvider.getEmailFromToken(request.getHeader("Authorization"));
         if (email == null) {
             return ResponseEntity.status(401).body(null); // Unauthorized
         }
 
         Cart cart = cartService.updateDishQuantity(email, cartItemRequest.getDishId(), cartItemRequest.getQuantity());
-        return ResponseEntity.ok(cart);
+        return ResponseEntity.ok(cartService.toResponse(cart));
     }
 
     /**
@@ -85,13 +91,66 @@ public class CartController {
      * @return Оновлений кошик або статус 401, якщо користувач неавторизований
      */
     @DeleteMapping("/remove")
-    public ResponseEntity<Cart> removeDish(HttpServletRequest request, @RequestBody CartItemRequest cartItemRequest) {
+    public ResponseEntity<CartResponse> removeDish(HttpServletRequest request, @RequestBody CartItemRequest cartItemRequest) {
         String email = jwtProvider.getEmailFromToken(request.getHeader("Authorization"));
         if (email == null) {
             return ResponseEntity.status(401).body(null); // Unauthorized
         }
         Cart cart = cartService.removeDishFromCart(email, cartItemRequest.getDishId());
-        return ResponseEntity.ok(cart);
+        return ResponseEntity.ok(cartService.toResponse(cart));
+    }
+
+    /**
+     * Застосувати кілька операцій над кошиком одним запитом.
+     *
+     * @param request HTTP-запит з JWT-токеном
+     * @param batchRequest список операцій add / update / remove
+     * @return Змінені позиції, нові підсумки та версія кошика, статус 400 для некоректних операцій,
+     *         409, якщо кошик змінено паралельно, або 401, якщо користувач неавторизований
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<CartDeltaResponse> applyBatch(HttpServletRequest request, @RequestBody CartBatchRequest batchRequest) {
+        String email = jwtProvider.getEmailFromToken(request.getHeader("Authorization"));
+        if (email == null) {
+            return ResponseEntity.status(401).body(null); // Unauthorized
+        }
+        try {
+            return ResponseEntity.ok(cartService.applyBatch(email, batchRequest));
+        } catch (CartConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Отримати гостьовий кошик анонімного відвідувача. Не звертається до БД.
+     *
+     * @param token токен гостьового кошика із заголовка X-Guest-Cart (необов'язковий)
+     * @return Вміст кошика та оновлений токен; недійсний токен дає порожній кошик
+     */
+    @GetMapping("/guest")
+    public ResponseEntity<GuestCartResponse> getGuestCart(@RequestHeader(name = GUEST_CART_HEADER, required = false) String token) {
+        return ResponseEntity.ok(cartService.viewGuestCart(token));
+    }
+
+    /**
+     * Застосувати операції до гостьового кошика. Не звертається до БД: новий вміст
+     * повертається у вигляді підписаного токена, який клієнт зберігає у себе.
+     *
+     * @param token токен гостьового кошика із заголовка X-Guest-Cart (необов'язковий)
+     * @param batchRequest список операцій add / update / remove
+     * @return Новий вміст кошика та токен або статус 400 для некоректних операцій;
+     *         недійсний токен вважається порожнім кошиком
+     */
+    @PostMapping("/guest/batch")
+    public ResponseEntity<GuestCartResponse> applyGuestBatch(@RequestHeader(name = GUEST_CART_HEADER, required = false) String token,
+                                                             @RequestBody CartBatchRequest batchRequest) {
+        try {
+            return ResponseEntity.ok(cartService.applyGuestBatch(token, batchRequest));
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().build();
+        }
     }
 
     /**
@@ -1,11 +1,14 @@
 package com.nickolas.caffebackend.controller;
 
+import com.nickolas.caffebackend.catalog.MenuCatalog;
 import com.nickolas.caffebackend.model.Category;
 import com.nickolas.caffebackend.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -18,37 +21,48 @@ import java.util.Optional;
 @RequestMapping("/api/categories")
 public class CategoryController {
     private final CategoryService categoryService;
+    private final MenuCatalog menuCatalog;
 
     /**
      * Конструктор із впровадженням залежності {@link CategoryService}.
      *
      * @param categoryService сервіс для роботи з категоріями
+     * @param menuCatalog     модель читання меню, що визначає версію для ETag
      */
     @Autowired
-    public CategoryController(CategoryService categoryService) {
+    public CategoryController(CategoryService categoryService, MenuCatalog menuCatalog) {
         this.categoryService = categoryService;
+        this.menuCatalog = menuCatalog;
     }
 
     /**
      * Отримати всі категорії.
      *
-     * @return список усіх об'єктів {@link Category}
+     * @param webRequest запит для перевірки If-None-Match
+     * @return список усіх об'єктів {@link Category} або 304, якщо меню не змінилося
      */
     @GetMapping
-    public List<Category> getAllCategories() {
-        return categoryService.getAllCategories();
+    public ResponseEntity<List<Category>> getAllCategories(WebRequest webRequest) {
+        if (webRequest.checkNotModified(menuCatalog.etag())) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(categoryService.getAllCategories());
     }
 
     /**
      * Отримати категорію за ідентифікатором.
      *
      * @param id ідентифікатор категорії
-     * @return об'єкт {@link Category} або статус 404, якщо категорію не знайдено
+     * @param webRequest запит для перевірки If-None-Match
+     * @return об'єкт {@link Category}, 304, якщо меню не змінилося, або статус 404, якщо категорію не знайдено
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Category> getCategoryById(@PathVariable("id") Long id) {
+    public ResponseEntity<Category> getCategoryById(@PathVariable("id") Long id, WebRequest webRequest) {
+        if (webRequest.checkNotModified(menuCatalog.etag())) {
+            return null;
+        }
         Optional<Category> category = categoryService.getCategoryById(id);
-        return category.map(ResponseEntity::ok)
+        return category.map(body -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(body))
                 .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_FOUND).build());
     }
 
@@ -1,18 +1,29 @@
 package com.nickolas.caffebackend.controller;
 
 
+import com.nickolas.caffebackend.catalog.MenuCatalog;
 import com.nickolas.caffebackend.model.Dish;
 import com.nickolas.caffebackend.request.DishCreateRequest;
 import com.nickolas.caffebackend.request.DishUpdateRequest;
+import com.nickolas.caffebackend.response.CursorPage;
+import com.nickolas.caffebackend.response.DishFacetsResponse;
+import com.nickolas.caffebackend.response.DishImportReport;
+import com.nickolas.caffebackend.response.DishSummary;
+import com.nickolas.caffebackend.service.DishImportService;
 import com.nickolas.caffebackend.service.DishService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
+import java.io.IOException;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,15 +35,21 @@ import java.util.Optional;
 @RequestMapping("/api/dishes")
 public class DishController {
     private final DishService dishService;
+    private final MenuCatalog menuCatalog;
+    private final DishImportService dishImportService;
 
     /**
      * Конструктор для автоматичного впровадження сервісу страв.
      *
      * @param dishService сервіс для роботи зі стравами
+     * @param menuCatalog модель читання меню, що визначає версію для ETag
+     * @param dishImportService сервіс масового імпорту страв
      */
     @Autowired
-    public DishController(DishService dishService) {
+    public DishController(DishService dishService, MenuCatalog menuCatalog, DishImportService dishImportService) {
         this.dishService = dishService;
+        this.menuCatalog = menuCatalog;
+        this.dishImportService = dishImportService;
     }
 
     /**
@@ -40,13 +57,18 @@ public class DishController {
      *
      * @param page номер сторінки (за замовчуванням 0)
      * @param size розмір сторінки (за замовчуванням 10)
-     * @return сторінка страв
+     * @param webRequest запит для перевірки If-None-Match
+     * @return сторінка скорочених представлень страв або 304, якщо меню не змінилося
      */
     @GetMapping
-    public ResponseEntity<Page<Dish>> getAllDishes(@RequestParam(name = "page", defaultValue = "0") int page,
-                                                   @RequestParam(name = "size", defaultValue = "10") int size) {
+    public ResponseEntity<Page<DishSummary>> getAllDishes(@RequestParam(name = "page", defaultValue = "0") int page,
+                                                          @RequestParam(name = "size", defaultValue = "10") int size,
+                                                          WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         Page<Dish> dishes = dishService.getAllDishes(PageRequest.of(page, size));
-        return ResponseEntity.ok(dishes);
+        return revalidated(dishes.map(DishSummary::from));
     }
 
     /**
@@ -59,17 +81,23 @@ public class DishController {
      * @param maxPrice максимальна ціна (необов’язково)
      * @param sortOrder параметр сортування (необов’язково)
      * @param name назва для пошуку (необов’язково)
-     * @return сторінка страв, що відповідають фільтру
+     * @param webRequest запит для перевірки If-None-Match
+     * @return сторінка скорочених представлень страв, що відповідають фільтру, або 304, якщо меню не змінилося
      */
 @GetMapping("/category/{categoryId}")
-public ResponseEntity<Page<Dish>> getDishesByCategory(
+public ResponseEntity<Page<DishSummary>> getDishesByCategory(
         @PathVariable("categoryId") Long categoryId,
         @RequestParam(name = "page", defaultValue = "0") int page,
         @RequestParam(name = "size", defaultValue = "10") int size,
         @RequestParam(name = "minPrice", required = false) Double minPrice,
         @RequestParam(name = "maxPrice", required = false) Double maxPrice,
         @RequestParam(name = "sort", required = false, defaultValue = "") String sortOrder,  // Параметр для сортування
-        @RequestParam(name = "name", required = false) String name) {
+        @RequestParam(name = "name", required = false) String name,
+        WebRequest webRequest) {
+
+    if (notModified(webRequest)) {
+        return null;
+    }
 
     PageRequest pageRequest = PageRequest.of(page, size);
 
@@ -86,19 +114,110 @@ public ResponseEntity<Page<Dish>> getDishesByCategory(
         dishes = dishService.getDishesByCategory(categoryId, pageRequest, sortOrder, name);
     }
 
-    return ResponseEntity.ok(dishes);
+    return revalidated(dishes.map(DishSummary::from));
 }
 
     /**
-     * Отримати страву за її ідентифікатором.
+     * Отримати страви з курсорною пагінацією (для нескінченного прокручування).
+     *
+     * @param sort порядок сортування: price, price_desc або name (за замовчуванням price)
+     * @param cursor курсор з попередньої відповіді (необов’язково)
+     * @param limit розмір сторінки (за замовчуванням 10, не більше 100)
+     * @param includeTotal чи повертати загальну кількість страв
+     * @return сторінка скорочених представлень страв з курсором продовження або статус 400 для некоректного курсора
+     */
+    @GetMapping("/scroll")
+    public ResponseEntity<CursorPage<DishSummary>> scrollDishes(
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "10") int limit,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
+        try {
+            return ResponseEntity.ok(dishService.scrollDishes(null, sort, cursor, null, null, null,
+                    clampLimit(limit), includeTotal).map(DishSummary::from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Отримати страви категорії з курсорною пагінацією та фільтрами.
+     *
+     * @param categoryId ідентифікатор категорії
+     * @param sort порядок сортування: price, price_desc або name (за замовчуванням price)
+     * @param cursor курсор з попередньої відповіді (необов’язково)
+     * @param limit розмір сторінки (за замовчуванням 10, не більше 100)
+     * @param minPrice мінімальна ціна (необов’язково)
+     * @param maxPrice максимальна ціна (необов’язково)
+     * @param name назва для пошуку (необов’язково)
+     * @param includeTotal чи повертати загальну кількість страв
+     * @return сторінка скорочених представлень страв з курсором продовження або статус 400 для некоректного курсора
+     */
+    @GetMapping("/category/{categoryId}/scroll")
+    public ResponseEntity<CursorPage<DishSummary>> scrollDishesByCategory(
+            @PathVariable("categoryId") Long categoryId,
+            @RequestParam(name = "sort", required = false) String sort,
+            @RequestParam(name = "cursor", required = false) String cursor,
+            @RequestParam(name = "limit", defaultValue = "10") int limit,
+            @RequestParam(name = "minPrice", required = false) Double minPrice,
+            @RequestParam(name = "maxPrice", required = false) Double maxPrice,
+            @RequestParam(name = "name", required = false) String name,
+            @RequestParam(name = "includeTotal", defaultValue = "false") boolean includeTotal) {
+        try {
+            return ResponseEntity.ok(dishService.scrollDishes(categoryId, sort, cursor, minPrice, maxPrice, name,
+                    clampLimit(limit), includeTotal).map(DishSummary::from));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Отримати фасети для фільтрів: кількість страв за категоріями, гістограму цін та мінімальну/максимальну ціну.
+     *
+     * @param categoryId ідентифікатор категорії (необов’язково, за замовчуванням усе меню)
+     * @param webRequest запит для перевірки If-None-Match
+     * @return фасети або 304, якщо меню не змінилося
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<DishFacetsResponse> getFacets(@RequestParam(name = "categoryId", required = false) Long categoryId,
+                                                        WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
+        return revalidated(dishService.getFacets(categoryId));
+    }
+
+    /**
+     * Повнотекстовий пошук страв за назвою та описом.
+     *
+     * @param query пошуковий рядок
+     * @param categoryId ідентифікатор категорії (необов’язково)
+     * @param limit максимальна кількість результатів (за замовчуванням 20)
+     * @return скорочені представлення страв, впорядковані за релевантністю
+     */
+    @GetMapping("/search")
+    public ResponseEntity<List<DishSummary>> searchDishes(@RequestParam(name = "q") String query,
+                                                   @RequestParam(name = "categoryId", required = false) Long categoryId,
+                                                   @RequestParam(name = "limit", defaultValue = "20") int limit) {
+        return ResponseEntity.ok(dishService.searchDishes(query, categoryId, clampLimit(limit)).stream()
+                .map(DishSummary::from)
+                .toList());
+    }
+
+    /**
+     * Отримати повні дані страви (з описом та інгредієнтами) за її ідентифікатором.
      *
      * @param id ідентифікатор страви
-     * @return відповідь з об’єктом страви або статус 404, якщо не знайдено
+     * @param webRequest запит для перевірки If-None-Match
+     * @return відповідь з об’єктом страви, 304, якщо меню не змінилося, або статус 404, якщо не знайдено
      */
     @GetMapping("/{id}")
-    public ResponseEntity<Dish> getDishById(@PathVariable("id") Long id) {
+    public ResponseEntity<Dish> getDishById(@PathVariable("id") Long id, WebRequest webRequest) {
+        if (notModified(webRequest)) {
+            return null;
+        }
         Optional<Dish> dish = dishService.getDishById(id);
-        return dish.map(ResponseEntity::ok).orElse(ResponseEntity.notFound().build());
+        return dish.map(this::revalidated).orElse(ResponseEntity.notFound().build());
     }
 
     /**
@@ -113,6 +232,20 @@ public ResponseEntity<Page<Dish>> getDishesByCategory(
         return ResponseEntity.status(HttpStatus.CREATED).body(createdDish);
     }
 
+    /**
+     * Масово імпортувати страви з файлу NDJSON, JSON-масиву або CSV.
+     * Тіло запиту читається потоково, тож файл не завантажується в пам'ять повністю.
+     *
+     * @param request HTTP-запит з файлом у тілі
+     * @return звіт з результатом для кожного рядка
+     * @throws IOException у разі помилки читання тіла запиту
+     */
+    @PostMapping(value = "/import", consumes = {"application/x-ndjson", MediaType.APPLICATION_JSON_VALUE, "text/csv"})
+    public ResponseEntity<DishImportReport> importDishes(HttpServletRequest request) throws IOException {
+        DishImportReport report = dishImportService.importDishes(request.getInputStream(), request.getContentType());
+        return ResponseEntity.ok(report);
+    }
+
     /**
      * Оновити існуючу страву за її ідентифікатором.
      *
@@ -145,4 +278,20 @@ public ResponseEntity<Page<Dish>> getDishesByCategory(
             return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
         }
     }
+
+    private static int clampLimit(int limit) {
+        return Math.max(1, Math.min(limit, 100));
+    }
+
+    /**
+     * Перевіряє умовний запит за версією меню без звернення до даних.
+     * Якщо клієнт має актуальну версію, відповідь уже отримала статус 304.
+     */
+    private boolean notModified(WebRequest webRequest) {
+        return webRequest.checkNotModified(menuCatalog.etag());
+    }
+
+    private <T> ResponseEntity<T> revalidated(T body) {
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(body);
+    }
 }
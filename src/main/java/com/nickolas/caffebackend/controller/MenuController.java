@@ -0,0 +1,105 @@
+package com.nickolas.caffebackend.controller;
+
+import com.nickolas.caffebackend.catalog.MenuBundleCache;
+import com.nickolas.caffebackend.catalog.MenuCatalog;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Locale;
+
+/**
+ * REST-контролер для отримання всього меню одним запитом.
+ */
+@RestController
+@RequestMapping("/api/menu")
+public class MenuController {
+    private final MenuBundleCache menuBundleCache;
+    private final MenuCatalog menuCatalog;
+
+    /**
+     * Конструктор з впровадженням залежностей.
+     *
+     * @param menuBundleCache кеш готового пакета меню
+     * @param menuCatalog     модель читання меню, що визначає версію для ETag
+     */
+    @Autowired
+    public MenuController(MenuBundleCache menuBundleCache, MenuCatalog menuCatalog) {
+        this.menuBundleCache = menuBundleCache;
+        this.menuCatalog = menuCatalog;
+    }
+
+    /**
+     * Отримати все меню (категорії зі стравами) у вигляді заздалегідь серіалізованого JSON.
+     * Якщо клієнт підтримує gzip, повертається заздалегідь стиснена версія.
+     * Стиснена і нестиснена версії мають різні ETag, щоб кеш не підмінив одну іншою при повторній перевірці.
+     *
+     * @param acceptEncoding заголовок Accept-Encoding (необов’язково)
+     * @param webRequest     запит для перевірки If-None-Match
+     * @return байти пакета меню або 304, якщо меню не змінилося
+     */
+    @GetMapping("/bundle")
+    public ResponseEntity<byte[]> getBundle(@RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                            WebRequest webRequest) {
+        boolean gzip = acceptsGzip(acceptEncoding);
+        String etag = menuCatalog.etag();
+        if (gzip) {
+            etag = etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+        if (webRequest.checkNotModified(etag)) {
+            return null;
+        }
+
+        MenuBundleCache.Bundle bundle = menuBundleCache.bundle();
+        byte[] body = gzip ? bundle.gzip() : bundle.json();
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .contentLength(body.length)
+                .cacheControl(CacheControl.noCache())
+                .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+
+    /**
+     * Чи приймає клієнт gzip згідно з Accept-Encoding, з урахуванням {@code q=0} і {@code *}.
+     */
+    static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null || acceptEncoding.isBlank()) {
+            return false;
+        }
+        Boolean wildcard = null;
+        for (String part : acceptEncoding.split(",")) {
+            String[] params = part.trim().split(";");
+            String coding = params[0].trim().toLowerCase(Locale.ROOT);
+            boolean accepted = true;
+            for (int i = 1; i < params.length; i++) {
+                String param = params[i].trim().toLowerCase(Locale.ROOT);
+                if (param.startsWith("q=")) {
+                    try {
+                        accepted = Double.parseDouble(param.substring(2).trim()) > 0;
+                    } catch (NumberFormatException e) {
+                        accepted = false;
+                    }
+                }
+            }
+            if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                return accepted;
+            }
+            if (coding.equals("*")) {
+                wildcard = accepted;
+            }
+        }
+        return Boolean.TRUE.equals(wildcard);
+    }
+}
@@ -1,16 +1,44 @@
 package com.nickolas.caffebackend.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.nickolas.caffebackend.config.JwtProvider;
 import com.nickolas.caffebackend.domain.OrderStatus;
-import com.nickolas.caffebackend.model.Order;
+import com.nickolas.caffebackend.domain.Role;
+import com.nickolas.caffebackend.order.IdempotencyService;
+import com.nickolas.caffebackend.order.OrderEventBus;
+import com.nickolas.caffebackend.order.OrderIntakePipeline;
+import com.nickolas.caffebackend.order.OrderTicket;
 import com.nickolas.caffebackend.request.CreateOrderRequest;
+import com.nickolas.caffebackend.request.OrderFeedFilter;
+import com.nickolas.caffebackend.request.OrderStatusBatchRequest;
+import com.nickolas.caffebackend.response.CursorPage;
+import com.nickolas.caffebackend.response.OrderFeedItem;
+import com.nickolas.caffebackend.response.OrderResponse;
+import com.nickolas.caffebackend.response.OrderStatusBatchResponse;
+import com.nickolas.caffebackend.response.OrderStatusResponse;
+import com.nickolas.caffebackend.response.RevenueResponse;
+import com.nickolas.caffebackend.response.OrderTicketResponse;
 import com.nickolas.caffebackend.service.OrderService;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Optional;
+import java.util.Set;
 
 /**
  * REST-контролер для керування замовленнями.
@@ -19,21 +47,41 @@ import java.util.List;
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
+    private static final int MAX_STATUS_BATCH = 200;
+    private static final int MAX_FEED_PAGE = 200;
+
     @Autowired
     private OrderService orderService;
 
     @Autowired
     private JwtProvider jwtProvider;
 
+    @Autowired
+    private OrderIntakePipeline orderIntakePipeline;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OrderEventBus orderEventBus;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     /**
      * Створити нове замовлення для автентифікованого користувача.
+     * Повторний запит з тим самим заголовком {@code Idempotency-Key} отримує першу відповідь
+     * без повторного оформлення.
      *
-     * @param request     тіло запиту з даними замовлення
-     * @param httpRequest HTTP-запит для отримання токена авторизації
+     * @param request        тіло запиту з даними замовлення
+     * @param idempotencyKey необов'язковий ключ ідемпотентності
+     * @param httpRequest    HTTP-запит для отримання токена авторизації
      * @return створене замовлення або статус помилки
      */
 @PostMapping("/create")
-public ResponseEntity<Order> createOrder(@RequestBody CreateOrderRequest request, HttpServletRequest httpRequest) {
+public ResponseEntity<?> createOrder(@RequestBody CreateOrderRequest request,
+                                     @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                     HttpServletRequest httpRequest) {
     String email = jwtProvider.getEmailFromToken(httpRequest.getHeader("Authorization"));
     if (email == null) return ResponseEntity.status(401).build();
 
@@ -41,10 +89,100 @@ public ResponseEntity<Order> createOrder(@RequestBody CreateOrderRequest request
         return ResponseEntity.badRequest().body(null);
     }
 
-    Order order = orderService.createOrder(email, request);
-    return ResponseEntity.ok(order);
+    return idempotencyService.execute(email, "order-create", idempotencyKey, request,
+            () -> ResponseEntity.ok(orderService.toResponse(orderService.createOrder(email, request))));
 }
 
+    /**
+     * Прийняти замовлення на асинхронне оформлення. Запит лише перевіряється і ставиться в чергу,
+     * замовлення зберігається у фоні.
+     *
+     * Заголовок {@code Idempotency-Key} працює так само, як для {@code /create}.
+     *
+     * @param request        тіло запиту з даними замовлення
+     * @param idempotencyKey необов'язковий ключ ідемпотентності
+     * @param httpRequest    HTTP-запит для отримання токена авторизації
+     * @return статус 202 із заявкою та адресою перевірки стану, 400 для некоректних даних,
+     *         503, якщо черга заповнена, або 401, якщо користувач не авторизований
+     */
+    @PostMapping("/submit")
+    public ResponseEntity<?> submitOrder(@RequestBody CreateOrderRequest request,
+                                         @RequestHeader(name = "Idempotency-Key", required = false) String idempotencyKey,
+                                         HttpServletRequest httpRequest) {
+        String email = jwtProvider.getEmailFromToken(httpRequest.getHeader("Authorization"));
+        if (email == null) return ResponseEntity.status(401).build();
+
+        try {
+            orderService.validateOrderRequest(request);
+        } catch (RuntimeException e) {
+            return ResponseEntity.badRequest().body(new OrderTicketResponse(null, null, null, e.getMessage(), null));
+        }
+
+        return idempotencyService.execute(email, "order-submit", idempotencyKey, request, () -> {
+            Optional<OrderTicket> ticket = orderIntakePipeline.submit(email, request);
+            if (ticket.isEmpty()) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "1").build();
+            }
+            OrderTicketResponse body = toTicketResponse(ticket.get());
+            return ResponseEntity.accepted().location(URI.create(body.getStatusUrl())).body(body);
+        });
+    }
+
+    /**
+     * Отримати стан замовлення, прийнятого на асинхронне оформлення.
+     *
+     * @param ticketId    ідентифікатор заявки
+     * @param httpRequest HTTP-запит для отримання токена авторизації
+     * @return стан заявки або статус 404, якщо заявку не знайдено
+     */
+    @GetMapping("/submit/{ticketId}")
+    public ResponseEntity<OrderTicketResponse> getSubmission(@PathVariable("ticketId") String ticketId, HttpServletRequest httpRequest) {
+        String email = jwtProvider.getEmailFromToken(httpRequest.getHeader("Authorization"));
+        if (email == null) return ResponseEntity.status(401).build();
+
+        return orderIntakePipeline.find(ticketId)
+                .filter(ticket -> ticket.getEmail().equals(email))
+                .map(ticket -> ResponseEntity.ok(toTicketResponse(ticket)))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private static OrderTicketResponse toTicketResponse(OrderTicket ticket) {
+        return new OrderTicketResponse(ticket.getId(), ticket.getStatus().name(), ticket.getOrderId(), ticket.getError(),
+                "/api/orders/submit/" + ticket.getId());
+    }
+
+    /**
+     * Підписатися на події замовлень (Server-Sent Events) замість періодичного опитування.
+     * Персонал (ADMIN, WORKER) отримує події всіх замовлень, інші користувачі — лише власних.
+     * Оскільки {@code EventSource} у браузері не передає заголовки, токен можна передати параметром.
+     *
+     * @param token       токен авторизації як параметр запиту (необов'язково)
+     * @param lastEventId номер останньої отриманої події з заголовка {@code Last-Event-ID} (необов'язково)
+     * @param httpRequest HTTP-запит для отримання токена авторизації
+     * @return потік подій, 401, якщо користувач не авторизований, або 503, якщо досягнуто ліміту підписників
+     */
+    @GetMapping(path = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(@RequestParam(name = "token", required = false) String token,
+                                                   @RequestHeader(name = "Last-Event-ID", required = false) String lastEventId,
+                                                   HttpServletRequest httpRequest) {
+        String authorization = token != null ? token : httpRequest.getHeader("Authorization");
+        String email = authorization == null ? null : jwtProvider.getEmailFromToken(authorization);
+        if (email == null) return ResponseEntity.status(401).build();
+
+        Set<String> roles = jwtProvider.getRolesFromToken(authorization);
+        boolean staff = roles.contains(Role.ROLE_ADMIN.name()) || roles.contains(Role.ROLE_WORKER.name());
+        Long resumeFrom;
+        try {
+            resumeFrom = lastEventId == null || lastEventId.isBlank() ? null : Long.valueOf(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            resumeFrom = null;
+        }
+
+        return orderEventBus.subscribe(email, staff, resumeFrom)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).header(HttpHeaders.RETRY_AFTER, "5").build());
+    }
+
     /**
      * Отримати список замовлень поточного користувача.
      *
@@ -52,7 +190,7 @@ public ResponseEntity<Order> createOrder(@RequestBody CreateOrderRequest request
      * @return список замовлень користувача або статус 401, якщо користувач не авторизований
      */
     @GetMapping("/my")
-    public ResponseEntity<List<Order>> getMyOrders(HttpServletRequest request) {
+    public ResponseEntity<List<OrderResponse>> getMyOrders(HttpServletRequest request) {
         String email = jwtProvider.getEmailFromToken(request.getHeader("Authorization"));
         if (email == null) return ResponseEntity.status(401).build();
 
@@ -60,15 +198,37 @@ public ResponseEntity<Order> createOrder(@RequestBody CreateOrderRequest request
     }
 
     /**
-     * Оновити статус замовлення.
+     * Оновити статус замовлення. Скасування через цей ендпоінт не дозволене.
      *
      * @param orderId ідентифікатор замовлення
      * @param status  новий статус замовлення
-     * @return оновлене замовлення
+     * @return ідентифікатор замовлення та його новий статус
      */
     @PutMapping("/{orderId}/status")
-    public ResponseEntity<Order> updateStatus(@PathVariable("orderId") Long orderId, @RequestParam("status") OrderStatus status) {
-        return ResponseEntity.ok(orderService.updateOrderStatus(orderId, status));
+    public ResponseEntity<OrderStatusResponse> updateStatus(@PathVariable("orderId") Long orderId, @RequestParam("status") OrderStatus status) {
+        return ResponseEntity.ok(new OrderStatusResponse(orderId, orderService.updateOrderStatus(orderId, status)));
+    }
+
+    /**
+     * Перевести кілька замовлень у новий статус (для кухні). Скасування через цей ендпоінт не дозволене.
+     *
+     * @param request ідентифікатори замовлень і новий статус
+     * @return змінені та відхилені замовлення або статус 400 для некоректного запиту чи скасування
+     */
+    @PutMapping("/status")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WORKER')")
+    public ResponseEntity<OrderStatusBatchResponse> updateStatuses(@RequestBody OrderStatusBatchRequest request) {
+        if (request.getStatus() == null || request.getStatus() == OrderStatus.CANCELLED || request.getOrderIds() == null
+                || request.getOrderIds().isEmpty() || request.getOrderIds().size() > MAX_STATUS_BATCH) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Long> updated = orderService.updateOrderStatuses(request.getOrderIds(), request.getStatus());
+        Set<Long> changed = new HashSet<>(updated);
+        List<Long> rejected = request.getOrderIds().stream()
+                .filter(id -> id != null && !changed.contains(id))
+                .distinct()
+                .toList();
+        return ResponseEntity.ok(new OrderStatusBatchResponse(request.getStatus(), updated, rejected));
     }
 
     /**
@@ -76,28 +236,123 @@ public ResponseEntity<Order> createOrder(@RequestBody CreateOrderRequest request
      *
      * @param orderId ідентифікатор замовлення
      * @param request HTTP-запит для витягування токена
-     * @return оновлене (скасоване) замовлення або статус помилки
+     * @return ідентифікатор скасованого замовлення та статус CANCELLED або статус помилки
      */
     @PutMapping("/{orderId}/cancel")
-    public ResponseEntity<Order> cancelOrder(@PathVariable("orderId") Long orderId, HttpServletRequest request) {
+    public ResponseEntity<OrderStatusResponse> cancelOrder(@PathVariable("orderId") Long orderId, HttpServletRequest request) {
         String email = jwtProvider.getEmailFromToken(request.getHeader("Authorization"));
         if (email == null) return ResponseEntity.status(401).build();
 
         try {
-            Order cancelledOrder = orderService.cancelOrder(orderId, email);
-            return ResponseEntity.ok(cancelledOrder);
+            return ResponseEntity.ok(new OrderStatusResponse(orderId, orderService.cancelOrder(orderId, email)));
         } catch (RuntimeException e) {
             return ResponseEntity.badRequest().body(null);
         }
     }
 
+    /**
+     * Отримати сторінку замовлень для адміністратора з фільтрами, від новіших до старіших.
+     *
+     * @param status       статус (необов'язково)
+     * @param from         початок періоду включно (необов'язково)
+     * @param to           кінець періоду не включно (необов'язково)
+     * @param deliveryType тип доставки (необов'язково)
+     * @param after        курсор попередньої сторінки (необов'язково)
+     * @param limit        розмір сторінки, до 200
+     * @return сторінка замовлень з курсором продовження або статус 400 для некоректного курсора
+     */
+    @GetMapping("/feed")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WORKER')")
+    public ResponseEntity<CursorPage<OrderFeedItem>> getOrderFeed(
+            @RequestParam(name = "status", required = false) OrderStatus status,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(name = "deliveryType", required = false) String deliveryType,
+            @RequestParam(name = "after", required = false) String after,
+            @RequestParam(name = "limit", defaultValue = "50") int limit) {
+        OrderFeedFilter filter = feedFilter(status, from, to, deliveryType);
+        try {
+            return ResponseEntity.ok(orderService.getOrderFeed(filter, after, Math.max(1, Math.min(limit, MAX_FEED_PAGE))));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Вивантажити всі замовлення, що відповідають фільтрам, у форматі NDJSON — по одному замовленню в рядку.
+     * Замовлення читаються з БД сторінками і одразу записуються у відповідь.
+     *
+     * @param status       статус (необов'язково)
+     * @param from         початок періоду включно (необов'язково)
+     * @param to           кінець періоду не включно (необов'язково)
+     * @param deliveryType тип доставки (необов'язково)
+     * @return потік замовлень
+     */
+    @GetMapping(path = "/feed/export", produces = "application/x-ndjson")
+    @PreAuthorize("hasAnyRole('ADMIN', 'WORKER')")
+    public ResponseEntity<StreamingResponseBody> exportOrders(
+            @RequestParam(name = "status", required = false) OrderStatus status,
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(name = "deliveryType", required = false) String deliveryType) {
+        OrderFeedFilter filter = feedFilter(status, from, to, deliveryType);
+        StreamingResponseBody body = out -> {
+            try {
+                orderService.exportOrders(filter, order -> {
+                    try {
+                        out.write(objectMapper.writeValueAsBytes(order));
+                        out.write('\n');
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/x-ndjson"))
+                .body(body);
+    }
+
+    private static OrderFeedFilter feedFilter(OrderStatus status, LocalDateTime from, LocalDateTime to, String deliveryType) {
+        OrderFeedFilter filter = new OrderFeedFilter();
+        filter.setStatus(status);
+        filter.setFrom(from);
+        filter.setTo(to);
+        filter.setDeliveryType(deliveryType);
+        return filter;
+    }
+
+    /**
+     * Отримати виручку за період (адміністративний доступ). Скасовані замовлення не враховуються.
+     * Замовлення, оформлені до появи колонки {@code created_at}, не мають часу створення,
+     * тож не потрапляють у жоден період.
+     *
+     * @param from початок періоду включно; за замовчуванням — 30 днів тому
+     * @param to   кінець періоду не включно; за замовчуванням — зараз
+     * @return виручка разом і по днях
+     */
+    @GetMapping("/revenue")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<RevenueResponse> getRevenue(
+            @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.toLocalDate().minusDays(30).atStartOfDay();
+        if (!start.isBefore(end)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(orderService.getRevenue(start, end));
+    }
+
     /**
      * Отримати всі замовлення (адміністративний доступ).
      *
      * @return список усіх замовлень
      */
     @GetMapping("/all")
-    public ResponseEntity<List<Order>> getAllOrders() {
+    public ResponseEntity<List<OrderResponse>> getAllOrders() {
         return ResponseEntity.ok(orderService.getAllOrders());
     }
 }
@@ -1,7 +1,17 @@
 package com.nickolas.caffebackend.domain;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 /**
  * Статус замовлення, який відображає поточний етап обробки.
+ * <p>
+ * Дозволені переходи задані таблицею: для кожного цільового статусу — статуси, з яких у нього можна перейти.
+ * Таблиця використовується як умова {@code status IN (...)} в оновленні, тож перевірка і зміна
+ * статусу відбуваються одним запитом.
  */
 public enum OrderStatus {
     /** Замовлення очікує обробки. */
@@ -11,5 +21,33 @@ public enum OrderStatus {
     /** Замовлення завершено. */
     COMPLETED,
     /** Замовлення скасовано. */
-    CANCELLED
+    CANCELLED;
+
+    private static final Map<OrderStatus, Set<OrderStatus>> SOURCES = new EnumMap<>(OrderStatus.class);
+
+    static {
+        SOURCES.put(PENDING, EnumSet.noneOf(OrderStatus.class));
+        SOURCES.put(IN_PROGRESS, EnumSet.of(PENDING));
+        SOURCES.put(COMPLETED, EnumSet.of(IN_PROGRESS));
+        SOURCES.put(CANCELLED, EnumSet.of(PENDING));
+    }
+
+    /**
+     * Статуси, з яких дозволено перейти в цей статус.
+     *
+     * @return незмінна множина статусів; порожня, якщо в цей статус перейти не можна
+     */
+    public Set<OrderStatus> allowedSources() {
+        return Collections.unmodifiableSet(SOURCES.get(this));
+    }
+
+    /**
+     * Чи дозволено перехід з цього статусу в указаний.
+     *
+     * @param target цільовий статус
+     * @return {@code true}, якщо перехід є в таблиці
+     */
+    public boolean canTransitionTo(OrderStatus target) {
+        return SOURCES.get(target).contains(this);
+    }
 }
@@ -0,0 +1,15 @@
+package com.nickolas.caffebackend.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Кошик змінено паралельно: очікувана версія не збігається з поточною
+ * або вичерпано спроби повторити зміну.
+ */
+@ResponseStatus(HttpStatus.CONFLICT)
+public class CartConflictException extends RuntimeException {
+    public CartConflictException(String message) {
+        super(message);
+    }
+}
@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonManagedReference;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -12,7 +13,7 @@ import java.util.List;
  * Містить список товарів (страв), які користувач додав у кошик.
  */
 @Entity
-@Table(name = "cart")
+@Table(name = "cart", indexes = @Index(name = "idx_cart_updated_at", columnList = "updated_at"))
 @Data
 public class Cart {
     /**
@@ -34,4 +35,25 @@ public class Cart {
     @OneToMany(mappedBy = "cart", cascade = CascadeType.ALL, orphanRemoval = true)
     @JsonManagedReference
     private List<CartItem> items = new ArrayList<>();
+
+    /**
+     * Версія кошика для оптимістичного блокування, збільшується при кожній зміні.
+     */
+    @Version
+    private long version;
+
+    /**
+     * Час останньої зміни вмісту кошика. Використовується для очищення покинутих кошиків.
+     */
+    private LocalDateTime updatedAt;
+
+    /**
+     * Сума кошика за поточними цінами меню. {@code null} — потребує перерахунку.
+     */
+    private Double subtotal;
+
+    /**
+     * Загальна кількість одиниць у кошику. {@code null} — потребує перерахунку.
+     */
+    private Integer itemCount;
 }
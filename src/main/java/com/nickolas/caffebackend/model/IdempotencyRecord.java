@@ -0,0 +1,41 @@
+package com.nickolas.caffebackend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Збережена відповідь на запит з ключем ідемпотентності.
+ * Повторний запит з тим самим ключем отримує цю відповідь замість повторного виконання.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+
+    /** SHA-256 від користувача, операції та ключа ідемпотентності. */
+    @Id
+    @Column(length = 64)
+    private String id;
+
+    /** SHA-256 тіла запиту, щоб виявити повторне використання ключа для іншого запиту. */
+    @Column(length = 64)
+    private String requestHash;
+
+    /** HTTP-статус відповіді; 0, поки перший запит ще виконується. */
+    private int status;
+
+    /** Тіло відповіді у форматі JSON. */
+    @Lob
+    @Column(columnDefinition = "LONGTEXT")
+    private String responseBody;
+
+    /** Час створення запису. */
+    private LocalDateTime createdAt;
+
+    /** Час, після якого запис можна видалити. */
+    private LocalDateTime expiresAt;
+}
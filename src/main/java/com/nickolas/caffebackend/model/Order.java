@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -18,7 +19,10 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "orders")
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_revenue", columnList = "created_at, status, total"),
+        @Index(name = "idx_orders_status", columnList = "status")
+})
 public class Order {
     /** Унікальний ідентифікатор замовлення. */
     @Id
@@ -46,4 +50,10 @@ public class Order {
 
     /** Тип доставки. */
     private String deliveryType;
+
+    /** Час оформлення замовлення. */
+    private LocalDateTime createdAt;
+
+    /** Сума замовлення за цінами на момент оформлення. */
+    private Double total;
 }
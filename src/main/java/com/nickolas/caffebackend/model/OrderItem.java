@@ -32,4 +32,10 @@ public class OrderItem {
 
     /** Кількість одиниць цієї страви в замовленні. */
     private int quantity;
+
+    /** Ціна однієї одиниці страви на момент оформлення замовлення. */
+    private Double unitPrice;
+
+    /** Вартість позиції на момент оформлення замовлення. */
+    private Double lineTotal;
 }
@@ -0,0 +1,34 @@
+package com.nickolas.caffebackend.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Кількість інгредієнта, зарезервована на складі під замовлення.
+ * Записи створюються при оформленні замовлення і повертаються на склад при його скасуванні.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@Table(name = "stock_reservation", indexes = @Index(name = "idx_stock_reservation_order", columnList = "order_id"))
+public class StockReservation {
+
+    /** Унікальний ідентифікатор резерву. */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    /** Замовлення, під яке зарезервовано інгредієнт. */
+    @ManyToOne
+    @JoinColumn(name = "order_id")
+    private Order order;
+
+    /** Запас, з якого списано інгредієнт. */
+    @ManyToOne
+    @JoinColumn(name = "ingredient_stock_id")
+    private IngredientStock ingredientStock;
+
+    /** Зарезервована кількість. */
+    private double amount;
+}
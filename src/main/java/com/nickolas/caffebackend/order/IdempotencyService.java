@@ -0,0 +1,242 @@
+package com.nickolas.caffebackend.order;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nickolas.caffebackend.model.IdempotencyRecord;
+import com.nickolas.caffebackend.repository.IdempotencyJdbcRepository;
+import com.nickolas.caffebackend.repository.IdempotencyRecordRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.dao.PessimisticLockingFailureException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Обробка заголовка {@code Idempotency-Key} для запитів, що створюють замовлення.
+ * <p>
+ * Ключ захоплюється вставкою рядка в таблицю {@code idempotency_keys} у тій самій транзакції, що й дія,
+ * і в ній же заповнюється відповіддю. Тож замовлення і запис ключа фіксуються або відкочуються разом:
+ * після збою чи перезапуску не лишається ні замовлення без ключа, ні ключа без замовлення.
+ * Конкурентна вставка того самого ключа (зокрема з іншого екземпляра) чекає на блокуванні рядка
+ * і після фіксації першої транзакції отримує порушення первинного ключа — тоді відтворюється збережена відповідь.
+ * <p>
+ * Завершені відповіді також тримаються в обмеженому LRU-кеші в пам'яті, а повтори в межах одного
+ * екземпляра чекають на результат першого запиту без звернення до БД. Відповіді з кодом 5xx
+ * не зберігаються, щоб клієнт міг повторити запит.
+ */
+@Component
+public class IdempotencyService {
+    /** Заголовок, яким позначається відтворена відповідь. */
+    public static final String REPLAYED_HEADER = "Idempotent-Replayed";
+
+    private final IdempotencyRecordRepository repository;
+    private final IdempotencyJdbcRepository jdbcRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final long ttlHours;
+    private final long waitMillis;
+    private final Map<String, IdempotencyRecord> cache;
+    private final ConcurrentHashMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Конструктор з впровадженням залежностей.
+     *
+     * @param repository          репозиторій збережених відповідей
+     * @param jdbcRepository      захоплення ключів вставкою
+     * @param transactionTemplate транзакція, в якій виконується дія разом із записом ключа
+     * @param objectMapper серіалізатор відповідей
+     * @param cacheSize    максимальна кількість відповідей у пам'яті
+     * @param ttlHours     строк зберігання відповідей
+     * @param waitMillis   скільки повтор чекає на завершення першого запиту
+     */
+    @Autowired
+    public IdempotencyService(IdempotencyRecordRepository repository, IdempotencyJdbcRepository jdbcRepository,
+                              TransactionTemplate transactionTemplate, ObjectMapper objectMapper,
+                              @Value("${idempotency.cache-size:1000}") int cacheSize,
+                              @Value("${idempotency.ttl-hours:24}") long ttlHours,
+                              @Value("${idempotency.wait-ms:10000}") long waitMillis) {
+        this.repository = repository;
+        this.jdbcRepository = jdbcRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttlHours = ttlHours;
+        this.waitMillis = waitMillis;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, IdempotencyRecord> eldest) {
+                return size() > cacheSize;
+            }
+        };
+    }
+
+    /**
+     * Виконує дію не більше одного разу для ключа ідемпотентності.
+     *
+     * @param email   користувач, якому належить ключ
+     * @param scope   назва операції, щоб однакові ключі різних операцій не перетиналися
+     * @param key     значення заголовка {@code Idempotency-Key} або {@code null}
+     * @param request тіло запиту для перевірки, що ключ не використано для іншого запиту
+     * @param action  дія, що формує відповідь
+     * @return відповідь дії або збережена відповідь; 422, якщо ключ уже використано для іншого
+     *         запиту; 409, якщо перший запит ще не завершився або завершився помилкою
+     */
+    public ResponseEntity<?> execute(String email, String scope, String key, Object request,
+                                     Supplier<? extends ResponseEntity<?>> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+        String id = sha256(email + "\n" + scope + "\n" + key);
+        String requestHash = sha256(toJson(request));
+
+        IdempotencyRecord stored = lookup(id);
+        if (stored != null) {
+            return replay(stored, requestHash);
+        }
+
+        CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            return await(running, requestHash);
+        }
+
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            IdempotencyRecord record = newRecord(id, requestHash, now);
+            ResponseEntity<?> response = transactionTemplate.execute(status -> {
+                jdbcRepository.claim(id, requestHash, now, record.getExpiresAt());
+                ResponseEntity<?> result = action.get();
+                if (result.getStatusCode().is5xxServerError()) {
+                    jdbcRepository.release(id);
+                } else {
+                    record.setStatus(result.getStatusCode().value());
+                    record.setResponseBody(result.getBody() == null ? null : toJson(result.getBody()));
+                    jdbcRepository.complete(id, record.getStatus(), record.getResponseBody());
+                }
+                return result;
+            });
+            if (record.getStatus() == IdempotencyJdbcRepository.PENDING) {
+                mine.complete(null);
+            } else {
+                remember(record);
+                mine.complete(record);
+            }
+            return response;
+        } catch (DuplicateKeyException e) {
+            // Ключ уже зафіксував інший запит (можливо, з іншого екземпляра).
+            IdempotencyRecord committed = lookup(id);
+            mine.complete(committed);
+            return committed != null ? replay(committed, requestHash) : ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (PessimisticLockingFailureException e) {
+            // Перший запит з цим ключем ще не завершився за час очікування блокування.
+            mine.complete(null);
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    /**
+     * Видаляє прострочені відповіді з БД.
+     */
+    @Scheduled(fixedDelayString = "${idempotency.purge-interval-ms:3600000}")
+    public void purgeExpired() {
+        repository.deleteExpired(LocalDateTime.now());
+    }
+
+    private IdempotencyRecord lookup(String id) {
+        synchronized (cache) {
+            IdempotencyRecord cached = cache.get(id);
+            if (cached != null && cached.getExpiresAt().isAfter(LocalDateTime.now())) {
+                return cached;
+            }
+        }
+        IdempotencyRecord record = repository.findById(id)
+                .filter(found -> found.getStatus() != IdempotencyJdbcRepository.PENDING)
+                .filter(found -> found.getExpiresAt().isAfter(LocalDateTime.now()))
+                .orElse(null);
+        if (record != null) {
+            remember(record);
+        }
+        return record;
+    }
+
+    private IdempotencyRecord newRecord(String id, String requestHash, LocalDateTime now) {
+        IdempotencyRecord record = new IdempotencyRecord();
+        record.setId(id);
+        record.setRequestHash(requestHash);
+        record.setStatus(IdempotencyJdbcRepository.PENDING);
+        record.setCreatedAt(now);
+        record.setExpiresAt(now.plusHours(ttlHours));
+        return record;
+    }
+
+    private void remember(IdempotencyRecord record) {
+        synchronized (cache) {
+            cache.put(record.getId(), record);
+        }
+    }
+
+    private ResponseEntity<?> await(CompletableFuture<IdempotencyRecord> running, String requestHash) {
+        try {
+            IdempotencyRecord record = running.get(waitMillis, TimeUnit.MILLISECONDS);
+            if (record != null) {
+                return replay(record, requestHash);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | TimeoutException e) {
+            // Перший запит ще виконується або завершився помилкою — клієнт має повторити пізніше.
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT).build();
+    }
+
+    private static ResponseEntity<?> replay(IdempotencyRecord record, String requestHash) {
+        if (!record.getRequestHash().equals(requestHash)) {
+            return ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY).build();
+        }
+        ResponseEntity.BodyBuilder builder = ResponseEntity.status(record.getStatus()).header(REPLAYED_HEADER, "true");
+        if (record.getResponseBody() == null) {
+            return builder.build();
+        }
+        return builder.contentType(MediaType.APPLICATION_JSON).body(record.getResponseBody());
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Cannot serialize idempotent response", e);
+        }
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
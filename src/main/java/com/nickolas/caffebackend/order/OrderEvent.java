@@ -0,0 +1,23 @@
+package com.nickolas.caffebackend.order;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.nickolas.caffebackend.domain.OrderStatus;
+
+/**
+ * Компактна подія про зміну замовлення для потоку подій.
+ *
+ * @param id         наскрізний номер події, за яким клієнт відновлює потік
+ * @param type       тип події
+ * @param orderId    ідентифікатор замовлення
+ * @param status     статус замовлення після події
+ * @param occurredAt час події в мілісекундах
+ * @param ownerEmail власник замовлення; не надсилається клієнтам, використовується лише для фільтрації
+ */
+public record OrderEvent(long id, Type type, Long orderId, OrderStatus status, long occurredAt,
+                         @JsonIgnore String ownerEmail) {
+
+    /** Тип події. */
+    public enum Type {
+        CREATED, STATUS_CHANGED
+    }
+}
@@ -0,0 +1,229 @@
+package com.nickolas.caffebackend.order;
+
+import com.nickolas.caffebackend.domain.OrderStatus;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Внутрішня шина подій замовлень, що роздає їх підписникам через Server-Sent Events.
+ * <p>
+ * Останні події зберігаються в кільцевому буфері, тож клієнт, що перепідключився із заголовком
+ * {@code Last-Event-ID}, отримує пропущені події без звернення до БД. Якщо пропущені події вже
+ * витіснені з буфера, клієнт отримує подію {@code reset} і має один раз перезавантажити список замовлень.
+ * Номери подій починаються з часу запуску, тож номер з попереднього запуску завжди вважається застарілим.
+ * <p>
+ * Нумерація, буфер і список підписників змінюються лише одним віртуальним потоком розсилки,
+ * тому порядок подій однаковий для всіх підписників і блокування не потрібні.
+ */
+@Component
+public class OrderEventBus {
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("order-events").factory());
+    private final Deque<OrderEvent> buffer = new ArrayDeque<>();
+    private final List<Subscriber> subscribers = new ArrayList<>();
+    private final AtomicInteger subscriberCount = new AtomicInteger();
+    private final int bufferSize;
+    private final long timeoutMillis;
+    private final int maxSubscribers;
+    private long sequence = System.currentTimeMillis() * 1000;
+
+    /**
+     * Конструктор з налаштуваннями шини.
+     *
+     * @param bufferSize     кількість останніх подій, доступних для відновлення потоку
+     * @param timeoutMillis  час життя одного з'єднання, після якого клієнт перепідключається
+     * @param maxSubscribers максимальна кількість одночасних підписників
+     */
+    @Autowired
+    public OrderEventBus(@Value("${order.events.buffer-size:1000}") int bufferSize,
+                         @Value("${order.events.timeout-ms:1800000}") long timeoutMillis,
+                         @Value("${order.events.max-subscribers:500}") int maxSubscribers) {
+        this.bufferSize = bufferSize;
+        this.timeoutMillis = timeoutMillis;
+        this.maxSubscribers = maxSubscribers;
+    }
+
+    /**
+     * Публікує подію після фіксації поточної транзакції або одразу, якщо транзакції немає.
+     *
+     * @param type       тип події
+     * @param orderId    ідентифікатор замовлення
+     * @param status     статус замовлення після події
+     * @param ownerEmail власник замовлення
+     */
+    public void publish(OrderEvent.Type type, Long orderId, OrderStatus status, String ownerEmail) {
+        long occurredAt = System.currentTimeMillis();
+        Runnable dispatch = () -> dispatch(type, orderId, status, occurredAt, ownerEmail);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    submit(dispatch);
+                }
+            });
+        } else {
+            submit(dispatch);
+        }
+    }
+
+    /**
+     * Публікує зміну статусу кількох замовлень.
+     *
+     * @param owners ідентифікатор замовлення → власник
+     * @param status новий статус
+     */
+    public void publishStatusChanged(Map<Long, String> owners, OrderStatus status) {
+        owners.forEach((orderId, email) -> publish(OrderEvent.Type.STATUS_CHANGED, orderId, status, email));
+    }
+
+    /**
+     * Створює підписку на події.
+     *
+     * @param email       користувач, що підписується
+     * @param staff       чи отримує підписник події всіх замовлень (персонал), а не лише власних
+     * @param lastEventId номер останньої отриманої події або {@code null} для нової підписки
+     * @return потік подій або порожнє значення, якщо досягнуто ліміту підписників
+     */
+    public Optional<SseEmitter> subscribe(String email, boolean staff, Long lastEventId) {
+        if (subscriberCount.incrementAndGet() > maxSubscribers) {
+            subscriberCount.decrementAndGet();
+            return Optional.empty();
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscriber subscriber = new Subscriber(emitter, email, staff);
+        emitter.onCompletion(() -> submit(() -> remove(subscriber)));
+        emitter.onTimeout(emitter::complete);
+        emitter.onError(error -> submit(() -> remove(subscriber)));
+        submit(() -> attach(subscriber, lastEventId));
+        return Optional.of(emitter);
+    }
+
+    /**
+     * Надсилає коментар усім підписникам, щоб проксі не закривали неактивні з'єднання
+     * і щоб вчасно виявляти відключених клієнтів.
+     */
+    @Scheduled(fixedDelayString = "${order.events.heartbeat-ms:15000}")
+    public void heartbeat() {
+        submit(() -> {
+            Iterator<Subscriber> iterator = subscribers.iterator();
+            while (iterator.hasNext()) {
+                Subscriber subscriber = iterator.next();
+                if (!send(subscriber, SseEmitter.event().comment("ping"))) {
+                    iterator.remove();
+                    subscriberCount.decrementAndGet();
+                }
+            }
+        });
+    }
+
+    /**
+     * Закриває всі підписки при зупинці застосунку.
+     */
+    @PreDestroy
+    public void shutdown() {
+        submit(() -> {
+            subscribers.forEach(subscriber -> subscriber.emitter.complete());
+            subscribers.clear();
+        });
+        dispatcher.shutdown();
+        try {
+            dispatcher.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void dispatch(OrderEvent.Type type, Long orderId, OrderStatus status, long occurredAt, String ownerEmail) {
+        OrderEvent event = new OrderEvent(++sequence, type, orderId, status, occurredAt, ownerEmail);
+        buffer.addLast(event);
+        if (buffer.size() > bufferSize) {
+            buffer.removeFirst();
+        }
+        Iterator<Subscriber> iterator = subscribers.iterator();
+        while (iterator.hasNext()) {
+            Subscriber subscriber = iterator.next();
+            if (subscriber.accepts(event) && !send(subscriber, toSse(event))) {
+                iterator.remove();
+                subscriberCount.decrementAndGet();
+            }
+        }
+    }
+
+    private void attach(Subscriber subscriber, Long lastEventId) {
+        if (lastEventId != null) {
+            long oldest = buffer.isEmpty() ? sequence + 1 : buffer.getFirst().id();
+            if (lastEventId < oldest - 1 || lastEventId > sequence) {
+                if (!send(subscriber, SseEmitter.event().id(String.valueOf(sequence)).name("reset").data(""))) {
+                    subscriberCount.decrementAndGet();
+                    return;
+                }
+            } else {
+                for (OrderEvent event : buffer) {
+                    if (event.id() > lastEventId && subscriber.accepts(event) && !send(subscriber, toSse(event))) {
+                        subscriberCount.decrementAndGet();
+                        return;
+                    }
+                }
+            }
+        }
+        subscribers.add(subscriber);
+    }
+
+    private void remove(Subscriber subscriber) {
+        if (subscribers.remove(subscriber)) {
+            subscriberCount.decrementAndGet();
+        }
+    }
+
+    private static SseEmitter.SseEventBuilder toSse(OrderEvent event) {
+        return SseEmitter.event()
+                .id(String.valueOf(event.id()))
+                .name("order")
+                .data(event, MediaType.APPLICATION_JSON);
+    }
+
+    private static boolean send(Subscriber subscriber, SseEmitter.SseEventBuilder event) {
+        try {
+            subscriber.emitter.send(event);
+            return true;
+        } catch (IOException | IllegalStateException e) {
+            subscriber.emitter.completeWithError(e);
+            return false;
+        }
+    }
+
+    private void submit(Runnable task) {
+        try {
+            dispatcher.execute(task);
+        } catch (RejectedExecutionException e) {
+            // Застосунок зупиняється, підписки вже закрито.
+        }
+    }
+
+    private record Subscriber(SseEmitter emitter, String email, boolean staff) {
+        boolean accepts(OrderEvent event) {
+            return staff || email.equals(event.ownerEmail());
+        }
+    }
+}
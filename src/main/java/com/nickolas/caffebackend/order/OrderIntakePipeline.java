@@ -0,0 +1,177 @@
+package com.nickolas.caffebackend.order;
+
+import com.nickolas.caffebackend.model.Order;
+import com.nickolas.caffebackend.request.CreateOrderRequest;
+import com.nickolas.caffebackend.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Асинхронний конвеєр прийому замовлень.
+ * <p>
+ * Запит перевіряється і ставиться в обмежену чергу на потоці Tomcat, після чого клієнт одразу
+ * отримує заявку. Оформлення (завантаження кошика, збереження замовлення, очищення кошика)
+ * виконують робітники на віртуальних потоках, по одній заявці в окремій транзакції: замовлення
+ * різних користувачів не об'єднуються, щоб помилка одного не відкочувала інші. Кількість
+ * робітників невелика, щоб не вичерпати пул з'єднань з БД. Коли черга заповнена, нові заявки
+ * відхиляються; при зупинці застосунку прийом припиняється, а вже прийняті заявки дооформлюються.
+ * <p>
+ * Черга і стан заявок зберігаються лише в пам'яті цього екземпляра: прийнята заявка, яку ще
+ * не оформлено, втрачається при аварійному завершенні процесу, а запит стану заявки до іншого
+ * екземпляра повертає 404. Клієнт, якому потрібна гарантія, повторює запит з тим самим
+ * {@code Idempotency-Key} або використовує синхронне оформлення.
+ */
+@Component
+public class OrderIntakePipeline implements SmartLifecycle {
+    private static final long POLL_MILLIS = 200;
+
+    private final OrderService orderService;
+    private final BlockingQueue<OrderTicket> queue;
+    private final ConcurrentHashMap<String, OrderTicket> tickets = new ConcurrentHashMap<>();
+    private final int workerCount;
+    private final long ticketTtlMillis;
+    private final List<Thread> workers = new ArrayList<>();
+    /** Перевірка прапорця і постановка в чергу атомарні відносно зупинки. */
+    private final ReentrantReadWriteLock intakeLock = new ReentrantReadWriteLock();
+    private volatile boolean running;
+
+    /**
+     * Конструктор з налаштуваннями конвеєра.
+     *
+     * @param orderService    сервіс оформлення замовлень
+     * @param queueCapacity   місткість черги заявок
+     * @param workerCount     кількість робітників
+     * @param ticketTtlMillis скільки зберігати стан завершеної заявки
+     */
+    @Autowired
+    public OrderIntakePipeline(OrderService orderService,
+                               @Value("${order.intake.queue-capacity:500}") int queueCapacity,
+                               @Value("${order.intake.workers:2}") int workerCount,
+                               @Value("${order.intake.ticket-ttl-ms:600000}") long ticketTtlMillis) {
+        this.orderService = orderService;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.workerCount = workerCount;
+        this.ticketTtlMillis = ticketTtlMillis;
+    }
+
+    /**
+     * Ставить перевірене замовлення в чергу.
+     *
+     * @param email   електронна пошта користувача
+     * @param request дані замовлення
+     * @return заявка або порожнє значення, якщо черга заповнена чи прийом зупинено
+     */
+    public Optional<OrderTicket> submit(String email, CreateOrderRequest request) {
+        evictExpired();
+        OrderTicket ticket = new OrderTicket(UUID.randomUUID().toString(), email, request);
+        intakeLock.readLock().lock();
+        try {
+            if (!running) {
+                return Optional.empty();
+            }
+            tickets.put(ticket.getId(), ticket);
+            if (!queue.offer(ticket)) {
+                tickets.remove(ticket.getId());
+                return Optional.empty();
+            }
+            return Optional.of(ticket);
+        } finally {
+            intakeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Повертає заявку за ідентифікатором.
+     *
+     * @param ticketId ідентифікатор заявки
+     * @return заявка або порожнє значення, якщо її немає або вона застаріла
+     */
+    public Optional<OrderTicket> find(String ticketId) {
+        return Optional.ofNullable(tickets.get(ticketId));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        for (int i = 0; i < workerCount; i++) {
+            workers.add(Thread.ofVirtual().name("order-intake-" + i).start(this::work));
+        }
+    }
+
+    @Override
+    public void stop() {
+        intakeLock.writeLock().lock();
+        try {
+            running = false;
+        } finally {
+            intakeLock.writeLock().unlock();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+        workers.clear();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Зупиняється після того, як веб-сервер перестав приймати запити, але до закриття пулу з'єднань.
+     */
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void work() {
+        while (true) {
+            OrderTicket ticket;
+            try {
+                ticket = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (ticket == null) {
+                if (!running) {
+                    return;
+                }
+                continue;
+            }
+            process(ticket);
+        }
+    }
+
+    private void process(OrderTicket ticket) {
+        try {
+            Order order = orderService.createOrder(ticket.getEmail(), ticket.getRequest());
+            ticket.complete(order.getId());
+        } catch (RuntimeException e) {
+            ticket.fail(e.getMessage());
+        }
+    }
+
+    private void evictExpired() {
+        long threshold = System.currentTimeMillis() - ticketTtlMillis;
+        tickets.values().removeIf(ticket -> ticket.getFinishedAt() != 0 && ticket.getFinishedAt() < threshold);
+    }
+}
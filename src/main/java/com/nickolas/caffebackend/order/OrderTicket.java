@@ -0,0 +1,69 @@
+package com.nickolas.caffebackend.order;
+
+import com.nickolas.caffebackend.request.CreateOrderRequest;
+
+/**
+ * Заявка на оформлення замовлення в асинхронному конвеєрі.
+ * Стан змінюється робітником конвеєра і читається з потоків запитів.
+ */
+public class OrderTicket {
+    /** Стан заявки. */
+    public enum Status {
+        QUEUED, COMPLETED, FAILED
+    }
+
+    private final String id;
+    private final String email;
+    private final CreateOrderRequest request;
+    private volatile Status status = Status.QUEUED;
+    private volatile Long orderId;
+    private volatile String error;
+    private volatile long finishedAt;
+
+    OrderTicket(String id, String email, CreateOrderRequest request) {
+        this.id = id;
+        this.email = email;
+        this.request = request;
+    }
+
+    void complete(Long orderId) {
+        this.orderId = orderId;
+        this.finishedAt = System.currentTimeMillis();
+        this.status = Status.COMPLETED;
+    }
+
+    void fail(String error) {
+        this.error = error;
+        this.finishedAt = System.currentTimeMillis();
+        this.status = Status.FAILED;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public CreateOrderRequest getRequest() {
+        return request;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    /** Час завершення в мілісекундах або 0, якщо заявка ще в черзі. */
+    public long getFinishedAt() {
+        return finishedAt;
+    }
+}
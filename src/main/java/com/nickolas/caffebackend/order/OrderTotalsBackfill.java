@@ -0,0 +1,122 @@
+package com.nickolas.caffebackend.order;
+
+import com.nickolas.caffebackend.repository.OrderJdbcRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Фонове заповнення цін позицій і сум для замовлень, оформлених до того, як ціни почали фіксуватися.
+ * <p>
+ * Позиціям без ціни записується поточна ціна страви — точнішої для старих замовлень немає.
+ * Після цього замовленням без суми записується сума вартостей позицій. Обробка йде невеликими
+ * порціями за ключем з паузою між ними, кожна порція — окремий короткий запит.
+ * Коли прохід не знаходить необроблених рядків, заповнення більше не запускається до перезапуску.
+ */
+@Component
+@ConditionalOnProperty(name = "order.backfill.enabled", havingValue = "true", matchIfMissing = true)
+public class OrderTotalsBackfill {
+    private final OrderJdbcRepository orderJdbcRepository;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final int maxBatches;
+    private final Counter itemsPriced;
+    private final Counter ordersTotaled;
+    private volatile boolean done;
+
+    /**
+     * Конструктор з впровадженням залежностей.
+     *
+     * @param orderJdbcRepository пакетні операції над замовленнями
+     * @param meterRegistry       реєстр метрик
+     * @param batchSize           кількість рядків в одній порції
+     * @param pauseMillis         пауза між порціями
+     * @param maxBatches          максимальна кількість порцій кожного виду за один прохід
+     */
+    @Autowired
+    public OrderTotalsBackfill(OrderJdbcRepository orderJdbcRepository, MeterRegistry meterRegistry,
+                               @Value("${order.backfill.batch-size:500}") int batchSize,
+                               @Value("${order.backfill.pause-ms:100}") long pauseMillis,
+                               @Value("${order.backfill.max-batches:200}") int maxBatches) {
+        this.orderJdbcRepository = orderJdbcRepository;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.maxBatches = maxBatches;
+        this.itemsPriced = Counter.builder("order.backfill.updated")
+                .description("Order items given a price snapshot")
+                .tag("table", "order_item")
+                .register(meterRegistry);
+        this.ordersTotaled = Counter.builder("order.backfill.updated")
+                .description("Orders given a stored total")
+                .tag("table", "orders")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Виконує один прохід заповнення.
+     */
+    @Scheduled(initialDelayString = "${order.backfill.initial-delay-ms:30000}",
+            fixedDelayString = "${order.backfill.interval-ms:600000}")
+    public void backfill() {
+        if (done) {
+            return;
+        }
+        boolean itemsDone = priceItems();
+        boolean ordersDone = itemsDone && totalOrders();
+        done = ordersDone;
+    }
+
+    private boolean priceItems() {
+        long afterId = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Long> ids = orderJdbcRepository.findUnpricedItemIds(afterId, batchSize);
+            if (ids.isEmpty()) {
+                return true;
+            }
+            itemsPriced.increment(orderJdbcRepository.priceItems(ids));
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < batchSize) {
+                return true;
+            }
+            if (!pause()) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean totalOrders() {
+        long afterId = 0;
+        for (int batch = 0; batch < maxBatches; batch++) {
+            List<Long> ids = orderJdbcRepository.findUntotaledOrderIds(afterId, batchSize);
+            if (ids.isEmpty()) {
+                return true;
+            }
+            ordersTotaled.increment(orderJdbcRepository.totalOrders(ids));
+            afterId = ids.get(ids.size() - 1);
+            if (ids.size() < batchSize) {
+                return true;
+            }
+            if (!pause()) {
+                return false;
+            }
+        }
+        return false;
+    }
+
+    private boolean pause() {
+        try {
+            Thread.sleep(pauseMillis);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,219 @@
+package com.nickolas.caffebackend.repository;
+
+import com.nickolas.caffebackend.model.Cart;
+import com.nickolas.caffebackend.model.CartItem;
+import com.nickolas.caffebackend.model.Dish;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Пакетний запис вмісту кошиків через JDBC.
+ */
+@Repository
+public class CartJdbcRepository {
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedJdbcTemplate;
+
+    @Autowired
+    public CartJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.namedJdbcTemplate = new NamedParameterJdbcTemplate(jdbcTemplate);
+    }
+
+    /**
+     * Читає кошик користувача для відображення одним запитом, без завантаження сутностей.
+     * Страви позицій містять лише ідентифікатор, назви й ціни беруться зі знімка меню.
+     *
+     * @param email електронна пошта користувача
+     * @return відокремлений кошик з позиціями або порожнє значення, якщо кошика ще немає
+     */
+    public Optional<Cart> findByUserEmail(String email) {
+        Cart[] found = new Cart[1];
+        jdbcTemplate.query("SELECT c.id, c.version, c.subtotal, c.item_count, ci.dish_id, ci.quantity FROM cart c " +
+                        "JOIN users u ON u.id = c.user_id LEFT JOIN cart_items ci ON ci.cart_id = c.id " +
+                        "WHERE u.email = ? ORDER BY ci.id",
+                rs -> {
+                    if (found[0] == null) {
+                        Cart cart = new Cart();
+                        cart.setId(rs.getLong(1));
+                        cart.setVersion(rs.getLong(2));
+                        cart.setSubtotal(rs.getObject(3) == null ? null : rs.getDouble(3));
+                        cart.setItemCount(rs.getObject(4) == null ? null : rs.getInt(4));
+                        found[0] = cart;
+                    }
+                    long dishId = rs.getLong(5);
+                    if (!rs.wasNull()) {
+                        Dish dish = new Dish();
+                        dish.setId(dishId);
+                        CartItem item = new CartItem();
+                        item.setCart(found[0]);
+                        item.setDish(dish);
+                        item.setQuantity(rs.getInt(6));
+                        found[0].getItems().add(item);
+                    }
+                }, email);
+        return Optional.ofNullable(found[0]);
+    }
+
+    /**
+     * Замінює позиції кількох кошиків: записує версії, час зміни та підсумки кошиків одним пакетом
+     * умовних оновлень, після чого видаляє старі позиції одним запитом і вставляє нові одним пакетом.
+     * Кошик записується лише тоді, коли його версія в БД дорівнює очікуваній; позиції кошиків,
+     * які за цей час змінив інший записувач або видалило прибирання, не чіпаються.
+     * Має викликатися в транзакції.
+     *
+     * @param carts            кошики з ідентифікаторами, новими версіями та актуальними позиціями
+     * @param expectedVersions ідентифікатор кошика → версія в БД, від якої зроблено зміни
+     * @return ідентифікатори кошиків, які не записано через розбіжність версії
+     */
+    public Set<Long> replaceItems(Collection<Cart> carts, Map<Long, Long> expectedVersions) {
+        if (carts.isEmpty()) {
+            return Set.of();
+        }
+        List<Cart> ordered = new ArrayList<>(carts);
+        int[] counts = jdbcTemplate.batchUpdate("UPDATE cart SET version = ?, updated_at = ?, subtotal = ?, item_count = ? " +
+                        "WHERE id = ? AND version = ?",
+                ordered.stream().map(cart -> new Object[]{cart.getVersion(), timestamp(cart.getUpdatedAt()),
+                        cart.getSubtotal(), cart.getItemCount(), cart.getId(), expectedVersions.get(cart.getId())}).toList());
+
+        Set<Long> stale = new HashSet<>();
+        List<Cart> written = new ArrayList<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            if (counts[i] == 0) {
+                stale.add(ordered.get(i).getId());
+            } else {
+                written.add(ordered.get(i));
+            }
+        }
+        if (written.isEmpty()) {
+            return stale;
+        }
+
+        List<Long> cartIds = written.stream().map(Cart::getId).toList();
+        namedJdbcTemplate.update("DELETE FROM cart_items WHERE cart_id IN (:ids)", new MapSqlParameterSource("ids", cartIds));
+        List<Object[]> rows = new ArrayList<>();
+        for (Cart cart : written) {
+            for (CartItem item : cart.getItems()) {
+                rows.add(new Object[]{cart.getId(), item.getDish().getId(), item.getQuantity()});
+            }
+        }
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate("INSERT INTO cart_items (cart_id, dish_id, quantity) VALUES (?, ?, ?)", rows);
+        }
+        return stale;
+    }
+
+    /**
+     * Читає поточні версії кошиків.
+     *
+     * @param cartIds ідентифікатори кошиків
+     * @return ідентифікатор кошика → версія; видалених кошиків у результаті немає
+     */
+    public Map<Long, Long> findVersions(Collection<Long> cartIds) {
+        Map<Long, Long> versions = new HashMap<>();
+        if (cartIds.isEmpty()) {
+            return versions;
+        }
+        namedJdbcTemplate.query("SELECT id, version FROM cart WHERE id IN (:ids)", new MapSqlParameterSource("ids", cartIds),
+                rs -> {
+                    versions.put(rs.getLong(1), rs.getLong(2));
+                });
+        return versions;
+    }
+
+    /**
+     * Очищує кошик двома запитами: видаляє всі позиції і скидає підсумки, збільшуючи версію.
+     * Має викликатися в транзакції.
+     *
+     * @param cartId ідентифікатор кошика
+     * @param now    час зміни
+     */
+    public void clear(Long cartId, LocalDateTime now) {
+        jdbcTemplate.update("DELETE FROM cart_items WHERE cart_id = ?", cartId);
+        jdbcTemplate.update("UPDATE cart SET subtotal = 0, item_count = 0, version = version + 1, updated_at = ? WHERE id = ?",
+                timestamp(now), cartId);
+    }
+
+    /**
+     * Коригує збережені суми кошиків після зміни цін страв одним пакетом:
+     * до суми кожного кошика зі стравою додається різниця ціни, помножена на кількість, а версія кошика збільшується,
+     * щоб конкурентні записувачі кошика помітили зміну.
+     *
+     * @param priceDeltas ідентифікатор страви → нова ціна мінус стара
+     * @return кількість оновлених кошиків
+     */
+    public int applyPriceDeltas(Map<Long, Double> priceDeltas) {
+        if (priceDeltas.isEmpty()) {
+            return 0;
+        }
+        List<Object[]> rows = priceDeltas.entrySet().stream()
+                .map(entry -> new Object[]{entry.getValue(), entry.getKey()})
+                .toList();
+        int[] counts = jdbcTemplate.batchUpdate("UPDATE cart c JOIN cart_items ci ON ci.cart_id = c.id " +
+                "SET c.subtotal = c.subtotal + ci.quantity * ?, c.version = c.version + 1 " +
+                "WHERE ci.dish_id = ? AND c.subtotal IS NOT NULL", rows);
+        return Arrays.stream(counts).filter(count -> count > 0).sum();
+    }
+
+    /**
+     * Проставляє поточний час кошикам без часу зміни (створеним до появи колонки),
+     * щоб відлік неактивності для них почався з цього моменту.
+     *
+     * @param now   поточний час
+     * @param limit максимальна кількість рядків за один запит
+     * @return кількість оновлених кошиків
+     */
+    public int stampMissingUpdatedAt(LocalDateTime now, int limit) {
+        return jdbcTemplate.update("UPDATE cart SET updated_at = ? WHERE updated_at IS NULL LIMIT ?", timestamp(now), limit);
+    }
+
+    /**
+     * Знаходить кошики, що не змінювалися з указаного моменту.
+     *
+     * @param before межа неактивності
+     * @param limit  максимальна кількість ідентифікаторів
+     * @return ідентифікатори кошиків у порядку зростання
+     */
+    public List<Long> findIdleCartIds(LocalDateTime before, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM cart WHERE updated_at < ? ORDER BY id LIMIT ?",
+                Long.class, timestamp(before), limit);
+    }
+
+    /**
+     * Видаляє кошики та їх позиції, якщо вони досі не змінювалися з указаного моменту.
+     * Має викликатися в транзакції.
+     *
+     * @param cartIds ідентифікатори кандидатів на видалення
+     * @param before  межа неактивності, перевіряється повторно на випадок паралельної зміни
+     * @return кількість видалених позицій та кошиків
+     */
+    public int[] deleteIdleCarts(List<Long> cartIds, LocalDateTime before) {
+        if (cartIds.isEmpty()) {
+            return new int[]{0, 0};
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource("ids", cartIds).addValue("before", timestamp(before));
+        int items = namedJdbcTemplate.update("DELETE ci FROM cart_items ci JOIN cart c ON c.id = ci.cart_id " +
+                "WHERE c.id IN (:ids) AND c.updated_at < :before", params);
+        int carts = namedJdbcTemplate.update("DELETE FROM cart WHERE id IN (:ids) AND updated_at < :before", params);
+        return new int[]{items, carts};
+    }
+
+    private static Timestamp timestamp(LocalDateTime value) {
+        return value == null ? null : Timestamp.valueOf(value);
+    }
+}
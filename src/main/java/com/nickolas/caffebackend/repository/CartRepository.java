@@ -2,6 +2,8 @@ package com.nickolas.caffebackend.repository;
 
 import com.nickolas.caffebackend.model.Cart;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.util.Optional;
 
@@ -18,4 +20,17 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
      * @return необов'язковий {@link Cart}, якщо знайдено
      */
     Optional<Cart> findByUserEmail(String email);
+
+    /**
+     * Завантажує кошик користувача разом з користувачем, позиціями та стравами одним запитом.
+     *
+     * @param email електронна адреса користувача
+     * @return необов'язковий {@link Cart}, якщо знайдено
+     */
+    @Query("SELECT DISTINCT c FROM Cart c " +
+            "JOIN FETCH c.user u " +
+            "LEFT JOIN FETCH c.items i " +
+            "LEFT JOIN FETCH i.dish " +
+            "WHERE u.email = :email")
+    Optional<Cart> findWithItemsByUserEmail(@Param("email") String email);
 }
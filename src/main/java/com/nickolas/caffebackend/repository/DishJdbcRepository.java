@@ -0,0 +1,109 @@
+package com.nickolas.caffebackend.repository;
+
+import com.nickolas.caffebackend.model.Dish;
+import com.nickolas.caffebackend.model.Ingredient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетний запис страв та їх інгредієнтів через JDBC.
+ * <p>
+ * Ідентифікатори IDENTITY не дозволяють Hibernate групувати вставки,
+ * тому масові операції виконуються одним JDBC-пакетом з отриманням згенерованих ключів.
+ */
+@Repository
+public class DishJdbcRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DishJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Вставляє страви одним пакетом і записує згенеровані ідентифікатори в об'єкти.
+     *
+     * @param dishes нові страви
+     */
+    public void insertDishes(List<Dish> dishes) {
+        if (dishes.isEmpty()) {
+            return;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement("INSERT INTO dishes (name, description, price, image_url, weight, preparation_time, category_id) " +
+                        "VALUES (?, ?, ?, ?, ?, ?, ?)", Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Dish dish = dishes.get(i);
+                        ps.setString(1, dish.getName());
+                        ps.setString(2, dish.getDescription());
+                        ps.setDouble(3, dish.getPrice());
+                        ps.setString(4, dish.getImageUrl());
+                        ps.setString(5, dish.getWeight());
+                        ps.setString(6, dish.getPreparationTime());
+                        if (dish.getCategory() == null) {
+                            ps.setNull(7, Types.BIGINT);
+                        } else {
+                            ps.setLong(7, dish.getCategory().getId());
+                        }
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return dishes.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < dishes.size(); i++) {
+            dishes.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    /**
+     * Вставляє інгредієнти страв одним пакетом. Страви мають бути вже збережені.
+     *
+     * @param ingredients нові інгредієнти
+     */
+    public void insertIngredients(List<Ingredient> ingredients) {
+        if (ingredients.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(
+                "INSERT INTO ingredient (name, quantity, unit, ingredient_stock_id, dish_id) VALUES (?, ?, ?, ?, ?)",
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Ingredient ingredient = ingredients.get(i);
+                        ps.setString(1, ingredient.getName());
+                        ps.setString(2, ingredient.getQuantity());
+                        ps.setString(3, ingredient.getUnit());
+                        if (ingredient.getIngredientStock() == null) {
+                            ps.setNull(4, Types.BIGINT);
+                        } else {
+                            ps.setLong(4, ingredient.getIngredientStock().getId());
+                        }
+                        ps.setLong(5, ingredient.getDish().getId());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return ingredients.size();
+                    }
+                });
+    }
+}
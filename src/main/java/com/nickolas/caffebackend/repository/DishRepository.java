@@ -1,15 +1,18 @@
 package com.nickolas.caffebackend.repository;
 
 import com.nickolas.caffebackend.model.Dish;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
+import java.util.Optional;
 
 /**
  * Репозиторій для роботи зі стравами {@link com.nickolas.caffebackend.model.Dish}.
@@ -54,6 +57,32 @@ public interface DishRepository extends JpaRepository<Dish, Long> {
             @Param("sortOrder") String sortOrder,
             Pageable pageable);
 
+    /**
+     * Завантажує всі страви разом з категоріями, інгредієнтами та їх запасами одним запитом.
+     */
+    @Query("SELECT DISTINCT d FROM Dish d " +
+            "LEFT JOIN FETCH d.category " +
+            "LEFT JOIN FETCH d.ingredients i " +
+            "LEFT JOIN FETCH i.ingredientStock")
+    List<Dish> findAllWithDetails();
+
+    /**
+     * Завантажує страву з блокуванням рядка на запис до кінця транзакції.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT d FROM Dish d WHERE d.id = :id")
+    Optional<Dish> findLockedById(@Param("id") Long id);
+
+    /**
+     * Завантажує страву разом з категорією, інгредієнтами та їх запасами одним запитом.
+     */
+    @Query("SELECT d FROM Dish d " +
+            "LEFT JOIN FETCH d.category " +
+            "LEFT JOIN FETCH d.ingredients i " +
+            "LEFT JOIN FETCH i.ingredientStock " +
+            "WHERE d.id = :id")
+    Optional<Dish> findWithDetailsById(@Param("id") Long id);
+
     /**
      * Пошук страв по частковому збігу назви (ігноруючи регістр).
      */
@@ -0,0 +1,65 @@
+package com.nickolas.caffebackend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Захоплення та завершення ключів ідемпотентності {@link com.nickolas.caffebackend.model.IdempotencyRecord} через JDBC.
+ * <p>
+ * Ключ захоплюється звичайним {@code INSERT}, тож конкурентний запит з тим самим ключем
+ * отримує порушення первинного ключа замість тихого злиття, яке робить {@code save} для присвоєного id.
+ */
+@Repository
+public class IdempotencyJdbcRepository {
+    /** Статус незавершеного запису, поки перший запит ще виконується. */
+    public static final int PENDING = 0;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public IdempotencyJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Вставляє незавершений запис ключа. Прострочений запис з тим самим ключем попередньо видаляється.
+     *
+     * @param id          ідентифікатор ключа
+     * @param requestHash хеш тіла запиту
+     * @param now         поточний час
+     * @param expiresAt   строк дії запису
+     * @throws org.springframework.dao.DuplicateKeyException якщо ключ уже захоплено
+     */
+    public void claim(String id, String requestHash, LocalDateTime now, LocalDateTime expiresAt) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ? AND expires_at < ?", id, Timestamp.valueOf(now));
+        jdbcTemplate.update("INSERT INTO idempotency_keys (id, request_hash, status, created_at, expires_at) VALUES (?, ?, ?, ?, ?)",
+                id, requestHash, PENDING, Timestamp.valueOf(now), Timestamp.valueOf(expiresAt));
+    }
+
+    /**
+     * Записує відповідь у захоплений ключ.
+     *
+     * @param id           ідентифікатор ключа
+     * @param status       HTTP-статус відповіді
+     * @param responseBody тіло відповіді у форматі JSON або {@code null}
+     * @return кількість оновлених записів
+     */
+    public int complete(String id, int status, String responseBody) {
+        return jdbcTemplate.update("UPDATE idempotency_keys SET status = ?, response_body = ? WHERE id = ? AND status = ?",
+                status, responseBody, id, PENDING);
+    }
+
+    /**
+     * Звільняє незавершений ключ, щоб клієнт міг повторити запит.
+     *
+     * @param id ідентифікатор ключа
+     * @return кількість видалених записів
+     */
+    public int release(String id) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ? AND status = ?", id, PENDING);
+    }
+}
@@ -0,0 +1,27 @@
+package com.nickolas.caffebackend.repository;
+
+import com.nickolas.caffebackend.model.IdempotencyRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * Репозиторій збережених відповідей {@link com.nickolas.caffebackend.model.IdempotencyRecord}.
+ */
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    /**
+     * Видаляє прострочені записи одним запитом.
+     *
+     * @param now поточний час
+     * @return кількість видалених записів
+     */
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") LocalDateTime now);
+}
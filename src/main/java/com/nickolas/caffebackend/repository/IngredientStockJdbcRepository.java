@@ -0,0 +1,86 @@
+package com.nickolas.caffebackend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Пакетні операції над залишками складу через JDBC.
+ * <p>
+ * Списання виконується умовними оновленнями {@code available_quantity >= ?}, тож
+ * залишок не може піти в мінус навіть при конкурентних записах, а рядки оновлюються
+ * у порядку ідентифікаторів, щоб паралельні транзакції не блокували одна одну навхрест.
+ */
+@Repository
+public class IngredientStockJdbcRepository {
+    private static final String DECREMENT_SQL = "UPDATE ingredient_stock SET available_quantity = available_quantity - ? " +
+            "WHERE id = ? AND available_quantity >= ?";
+    private static final String INCREMENT_SQL = "UPDATE ingredient_stock SET available_quantity = available_quantity + ? WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public IngredientStockJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Умовно списує кількості з кількох запасів одним пакетом.
+     * Має викликатися в транзакції, яку слід відкотити, якщо результат непорожній.
+     *
+     * @param amounts ідентифікатор запасу → кількість до списання
+     * @return ідентифікатори запасів, яких не вистачило
+     */
+    public List<Long> decrementAll(Map<Long, Double> amounts) {
+        if (amounts.isEmpty()) {
+            return List.of();
+        }
+        List<Map.Entry<Long, Double>> ordered = new ArrayList<>(new TreeMap<>(amounts).entrySet());
+        int[] counts = jdbcTemplate.batchUpdate(DECREMENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<Long, Double> entry = ordered.get(i);
+                ps.setDouble(1, entry.getValue());
+                ps.setLong(2, entry.getKey());
+                ps.setDouble(3, entry.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ordered.size();
+            }
+        });
+
+        List<Long> shortIds = new ArrayList<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] == 0) {
+                shortIds.add(ordered.get(i).getKey());
+            }
+        }
+        return shortIds;
+    }
+
+    /**
+     * Повертає кількості на склад одним пакетом, також у порядку ідентифікаторів.
+     *
+     * @param amounts ідентифікатор запасу → кількість до повернення
+     */
+    public void incrementAll(Map<Long, Double> amounts) {
+        if (amounts.isEmpty()) {
+            return;
+        }
+        List<Map.Entry<Long, Double>> ordered = new ArrayList<>(new TreeMap<>(amounts).entrySet());
+        jdbcTemplate.batchUpdate(INCREMENT_SQL, ordered, ordered.size(), (ps, entry) -> {
+            ps.setDouble(1, entry.getValue());
+            ps.setLong(2, entry.getKey());
+        });
+    }
+}
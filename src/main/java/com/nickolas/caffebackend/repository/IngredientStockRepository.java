@@ -1,8 +1,14 @@
 package com.nickolas.caffebackend.repository;
 
 import com.nickolas.caffebackend.model.IngredientStock;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -14,4 +20,21 @@ public interface IngredientStockRepository extends JpaRepository<IngredientStock
      * Знаходить інгредієнт на складі за назвою без урахування регістру.
      */
     Optional<IngredientStock> findByNameIgnoreCase(String name);
+
+    /**
+     * Знаходить запаси за набором назв одним запитом.
+     *
+     * @param names назви в нижньому регістрі
+     */
+    @Query("SELECT s FROM IngredientStock s WHERE LOWER(s.name) IN :names")
+    List<IngredientStock> findAllByLowerNameIn(@Param("names") Collection<String> names);
+
+    /**
+     * Знаходить і блокує на запис запаси за набором назв одним запитом.
+     *
+     * @param names назви в нижньому регістрі
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM IngredientStock s WHERE LOWER(s.name) IN :names ORDER BY s.id")
+    List<IngredientStock> lockAllByLowerNameIn(@Param("names") Collection<String> names);
 }
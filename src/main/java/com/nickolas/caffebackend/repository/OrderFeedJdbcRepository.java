@@ -0,0 +1,116 @@
+package com.nickolas.caffebackend.repository;
+
+import com.nickolas.caffebackend.domain.OrderStatus;
+import com.nickolas.caffebackend.request.OrderFeedFilter;
+import com.nickolas.caffebackend.response.OrderFeedItem;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Читання стрічки замовлень для адміністратора через JDBC, без завантаження сутностей.
+ * <p>
+ * Сторінки використовують пагінацію за ключем: наступна сторінка починається з замовлень,
+ * ідентифікатор яких менший за останній виданий, тож вартість сторінки не залежить від її глибини.
+ * Вивантаження читає ті самі сторінки, тож з'єднання з БД займається лише на час запиту однієї сторінки,
+ * а не на весь час передачі відповіді клієнту.
+ */
+@Repository
+public class OrderFeedJdbcRepository {
+    private static final String ORDER_COLUMNS = "o.id, o.status, o.created_at, u.email, o.phone_number, " +
+            "o.delivery_type, o.delivery_address, o.total";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OrderFeedJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Повертає сторінку замовлень від новіших до старіших.
+     *
+     * @param filter  фільтри
+     * @param afterId ідентифікатор останнього замовлення попередньої сторінки або {@code null} для першої
+     * @param limit   розмір сторінки
+     * @return замовлення з позиціями
+     */
+    public List<OrderFeedItem> findPage(OrderFeedFilter filter, Long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        String where = where(filter, afterId, args);
+        args.add(limit);
+        Map<Long, OrderFeedItem> orders = new LinkedHashMap<>();
+        jdbcTemplate.query("SELECT " + ORDER_COLUMNS + " FROM orders o LEFT JOIN users u ON u.id = o.user_id"
+                        + where + " ORDER BY o.id DESC LIMIT ?",
+                rs -> {
+                    OrderFeedItem order = mapOrder(rs);
+                    orders.put(order.getId(), order);
+                }, args.toArray());
+        if (orders.isEmpty()) {
+            return List.of();
+        }
+
+        jdbcTemplate.query("SELECT oi.order_id, oi.dish_id, d.name, oi.quantity FROM order_item oi " +
+                        "LEFT JOIN dishes d ON d.id = oi.dish_id WHERE oi.order_id IN ("
+                        + String.join(", ", Collections.nCopies(orders.size(), "?")) + ") ORDER BY oi.order_id, oi.id",
+                rs -> {
+                    orders.get(rs.getLong(1)).getItems().add(mapLine(rs, 2));
+                }, orders.keySet().toArray());
+        return new ArrayList<>(orders.values());
+    }
+
+    private static String where(OrderFeedFilter filter, Long afterId, List<Object> args) {
+        List<String> conditions = new ArrayList<>();
+        if (afterId != null) {
+            conditions.add("o.id < ?");
+            args.add(afterId);
+        }
+        if (filter.getStatus() != null) {
+            conditions.add("o.status = ?");
+            args.add(filter.getStatus().name());
+        }
+        if (filter.getFrom() != null) {
+            conditions.add("o.created_at >= ?");
+            args.add(Timestamp.valueOf(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            conditions.add("o.created_at < ?");
+            args.add(Timestamp.valueOf(filter.getTo()));
+        }
+        if (filter.getDeliveryType() != null && !filter.getDeliveryType().isBlank()) {
+            conditions.add("o.delivery_type = ?");
+            args.add(filter.getDeliveryType());
+        }
+        return conditions.isEmpty() ? "" : " WHERE " + String.join(" AND ", conditions);
+    }
+
+    private static OrderFeedItem mapOrder(ResultSet rs) throws SQLException {
+        OrderFeedItem order = new OrderFeedItem();
+        order.setId(rs.getLong(1));
+        String status = rs.getString(2);
+        order.setStatus(status == null ? null : OrderStatus.valueOf(status));
+        Timestamp createdAt = rs.getTimestamp(3);
+        order.setCreatedAt(createdAt == null ? null : createdAt.toLocalDateTime());
+        order.setUserEmail(rs.getString(4));
+        order.setPhoneNumber(rs.getString(5));
+        order.setDeliveryType(rs.getString(6));
+        order.setDeliveryAddress(rs.getString(7));
+        double total = rs.getDouble(8);
+        order.setTotal(rs.wasNull() ? null : total);
+        return order;
+    }
+
+    private static OrderFeedItem.Line mapLine(ResultSet rs, int offset) throws SQLException {
+        long dishId = rs.getLong(offset);
+        return new OrderFeedItem.Line(rs.wasNull() ? null : dishId, rs.getString(offset + 1), rs.getInt(offset + 2));
+    }
+}
@@ -0,0 +1,298 @@
+package com.nickolas.caffebackend.repository;
+
+import com.nickolas.caffebackend.domain.OrderStatus;
+import com.nickolas.caffebackend.model.OrderItem;
+import com.nickolas.caffebackend.response.OrderResponse;
+import com.nickolas.caffebackend.response.RevenueResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Пакетний запис позицій замовлень і зміна статусів замовлень через JDBC.
+ * <p>
+ * Статус змінюється умовним оновленням {@code WHERE id = ? AND status IN (...)}: перевірка переходу
+ * і запис відбуваються одним запитом без завантаження замовлення, а з двох конкурентних переходів
+ * спрацьовує лише перший.
+ */
+@Repository
+public class OrderJdbcRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OrderJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Вставляє позиції замовлення одним пакетом і записує згенеровані ідентифікатори в об'єкти.
+     * Замовлення має бути вже збережене.
+     *
+     * @param items нові позиції замовлення
+     */
+    public void insertItems(List<OrderItem> items) {
+        if (items.isEmpty()) {
+            return;
+        }
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                con -> con.prepareStatement("INSERT INTO order_item (order_id, dish_id, quantity, unit_price, line_total) " +
+                                "VALUES (?, ?, ?, ?, ?)",
+                        Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        OrderItem item = items.get(i);
+                        ps.setLong(1, item.getOrder().getId());
+                        ps.setLong(2, item.getDish().getId());
+                        ps.setInt(3, item.getQuantity());
+                        ps.setObject(4, item.getUnitPrice());
+                        ps.setObject(5, item.getLineTotal());
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return items.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < items.size(); i++) {
+            items.get(i).setId(((Number) keys.get(i).values().iterator().next()).longValue());
+        }
+    }
+
+    /**
+     * Переводить замовлення в новий статус одним пакетом умовних оновлень.
+     *
+     * @param orderIds ідентифікатори замовлень
+     * @param sources  статуси, з яких дозволено перехід
+     * @param target   новий статус
+     * @return кількість оновлених рядків для кожного замовлення в тому самому порядку: 1 або 0
+     */
+    public int[] transition(List<Long> orderIds, Set<OrderStatus> sources, OrderStatus target) {
+        if (orderIds.isEmpty() || sources.isEmpty()) {
+            return new int[orderIds.size()];
+        }
+        List<OrderStatus> from = new ArrayList<>(sources);
+        String sql = "UPDATE orders SET status = ? WHERE id = ? AND status IN ("
+                + placeholders(from.size()) + ")";
+        return jdbcTemplate.batchUpdate(sql, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                ps.setString(1, target.name());
+                ps.setLong(2, orderIds.get(i));
+                for (int j = 0; j < from.size(); j++) {
+                    ps.setString(3 + j, from.get(j).name());
+                }
+            }
+
+            @Override
+            public int getBatchSize() {
+                return orderIds.size();
+            }
+        });
+    }
+
+    /**
+     * Умовно переводить замовлення в новий статус, лише якщо воно належить користувачу.
+     *
+     * @param orderId ідентифікатор замовлення
+     * @param email   електронна пошта власника
+     * @param sources статуси, з яких дозволено перехід
+     * @param target  новий статус
+     * @return кількість оновлених рядків: 1 або 0
+     */
+    public int transitionOwned(Long orderId, String email, Set<OrderStatus> sources, OrderStatus target) {
+        if (sources.isEmpty()) {
+            return 0;
+        }
+        List<Object> args = new ArrayList<>();
+        args.add(target.name());
+        args.add(orderId);
+        sources.forEach(status -> args.add(status.name()));
+        args.add(email);
+        return jdbcTemplate.update("UPDATE orders SET status = ? WHERE id = ? AND status IN ("
+                + placeholders(sources.size())
+                + ") AND user_id = (SELECT id FROM users WHERE email = ?)", args.toArray());
+    }
+
+    /**
+     * Повертає поточний статус замовлення та електронну пошту власника.
+     * Використовується лише для пояснення, чому умовне оновлення не спрацювало.
+     *
+     * @param orderId ідентифікатор замовлення
+     * @return пара статус → пошта власника або порожнє значення, якщо замовлення немає
+     */
+    public Optional<Map.Entry<OrderStatus, String>> findStatusAndOwner(Long orderId) {
+        return jdbcTemplate.query("SELECT o.status, u.email FROM orders o LEFT JOIN users u ON u.id = o.user_id WHERE o.id = ?",
+                (rs, rowNum) -> Map.entry(OrderStatus.valueOf(rs.getString(1)), String.valueOf(rs.getString(2))),
+                orderId).stream().findFirst();
+    }
+
+    /**
+     * Повертає власників замовлень одним запитом.
+     *
+     * @param orderIds ідентифікатори замовлень
+     * @return ідентифікатор замовлення → електронна пошта власника
+     */
+    public Map<Long, String> findOwnerEmails(Collection<Long> orderIds) {
+        Map<Long, String> owners = new HashMap<>();
+        if (orderIds.isEmpty()) {
+            return owners;
+        }
+        jdbcTemplate.query("SELECT o.id, u.email FROM orders o JOIN users u ON u.id = o.user_id WHERE o.id IN ("
+                        + placeholders(orderIds.size()) + ")",
+                rs -> {
+                    owners.put(rs.getLong(1), rs.getString(2));
+                }, orderIds.toArray());
+        return owners;
+    }
+
+    /**
+     * Читає замовлення для відображення одним проєкційним запитом, без завантаження сутностей
+     * користувача і страв. Ціни беруться з позицій замовлення; для старих замовлень, ще не оброблених
+     * {@link com.nickolas.caffebackend.order.OrderTotalsBackfill}, — поточні ціни страв.
+     *
+     * @param email власник замовлень або {@code null} для всіх замовлень
+     * @return замовлення з позиціями в порядку оформлення
+     */
+    public List<OrderResponse> findResponses(String email) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT o.id, o.status, o.created_at, o.phone_number, o.delivery_type, o.delivery_address, " +
+                "o.total, oi.dish_id, d.name, COALESCE(oi.unit_price, d.price), oi.quantity, oi.line_total FROM orders o " +
+                "LEFT JOIN order_item oi ON oi.order_id = o.id " +
+                "LEFT JOIN dishes d ON d.id = oi.dish_id";
+        if (email != null) {
+            sql += " WHERE o.user_id = (SELECT id FROM users WHERE email = ?)";
+            args.add(email);
+        }
+        Map<Long, OrderResponse> orders = new LinkedHashMap<>();
+        jdbcTemplate.query(sql + " ORDER BY o.id, oi.id", rs -> {
+            OrderResponse order = orders.get(rs.getLong(1));
+            if (order == null) {
+                order = new OrderResponse();
+                order.setId(rs.getLong(1));
+                String status = rs.getString(2);
+                order.setStatus(status == null ? null : OrderStatus.valueOf(status));
+                Timestamp createdAt = rs.getTimestamp(3);
+                order.setCreatedAt(createdAt == null ? null : createdAt.toLocalDateTime());
+                order.setPhoneNumber(rs.getString(4));
+                order.setDeliveryType(rs.getString(5));
+                order.setDeliveryAddress(rs.getString(6));
+                order.setTotal(rs.getDouble(7));
+                orders.put(order.getId(), order);
+            }
+            // Замовлення без позицій дає один рядок з порожніми колонками позиції.
+            if (rs.getObject(11) != null) {
+                long dishId = rs.getLong(8);
+                Long lineDishId = rs.wasNull() ? null : dishId;
+                double unitPrice = rs.getDouble(10);
+                int quantity = rs.getInt(11);
+                double lineTotal = rs.getObject(12) == null ? unitPrice * quantity : rs.getDouble(12);
+                order.getItems().add(new OrderResponse.Line(lineDishId, rs.getString(9), unitPrice, quantity, lineTotal));
+                if (rs.getObject(7) == null) {
+                    order.setTotal(order.getTotal() + lineTotal);
+                }
+            }
+        }, args.toArray());
+        return new ArrayList<>(orders.values());
+    }
+
+    /**
+     * Повертає ідентифікатори позицій без зафіксованої ціни, починаючи після указаного.
+     * Позиції видалених страв пропускаються: ціну для них взяти ніде, і без цього фільтра
+     * вони повторно вибиралися б при кожному запуску дозаповнення.
+     *
+     * @param afterId останній оброблений ідентифікатор
+     * @param limit   максимальна кількість
+     * @return ідентифікатори у порядку зростання
+     */
+    public List<Long> findUnpricedItemIds(long afterId, int limit) {
+        return jdbcTemplate.queryForList("SELECT oi.id FROM order_item oi JOIN dishes d ON d.id = oi.dish_id " +
+                        "WHERE oi.unit_price IS NULL AND oi.id > ? ORDER BY oi.id LIMIT ?",
+                Long.class, afterId, limit);
+    }
+
+    /**
+     * Фіксує для позицій поточні ціни страв. Позиції видалених страв лишаються без ціни.
+     *
+     * @param itemIds ідентифікатори позицій
+     * @return кількість оновлених позицій
+     */
+    public int priceItems(List<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("UPDATE order_item oi JOIN dishes d ON d.id = oi.dish_id " +
+                "SET oi.unit_price = d.price, oi.line_total = d.price * oi.quantity " +
+                "WHERE oi.unit_price IS NULL AND oi.id IN (" + placeholders(itemIds.size()) + ")", itemIds.toArray());
+    }
+
+    /**
+     * Повертає ідентифікатори замовлень без збереженої суми, починаючи після указаного.
+     *
+     * @param afterId останній оброблений ідентифікатор
+     * @param limit   максимальна кількість
+     * @return ідентифікатори у порядку зростання
+     */
+    public List<Long> findUntotaledOrderIds(long afterId, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM orders WHERE total IS NULL AND id > ? ORDER BY id LIMIT ?",
+                Long.class, afterId, limit);
+    }
+
+    /**
+     * Записує суми замовлень як суму вартостей їхніх позицій. Позиції без ціни (видалених страв) не враховуються.
+     *
+     * @param orderIds ідентифікатори замовлень
+     * @return кількість оновлених замовлень
+     */
+    public int totalOrders(List<Long> orderIds) {
+        if (orderIds.isEmpty()) {
+            return 0;
+        }
+        return jdbcTemplate.update("UPDATE orders o SET o.total = " +
+                "(SELECT COALESCE(SUM(oi.line_total), 0) FROM order_item oi WHERE oi.order_id = o.id) " +
+                "WHERE o.total IS NULL AND o.id IN (" + placeholders(orderIds.size()) + ")", orderIds.toArray());
+    }
+
+    /**
+     * Рахує виручку за період по днях лише за колонками {@code orders}, без з'єднань з позиціями і стравами.
+     * Скасовані замовлення не враховуються, як і замовлення без {@code created_at}
+     * (оформлені до появи цієї колонки).
+     *
+     * @param from початок періоду включно
+     * @param to   кінець періоду не включно
+     * @return виручка по днях
+     */
+    public List<RevenueResponse.Day> revenueByDay(LocalDateTime from, LocalDateTime to) {
+        return jdbcTemplate.query("SELECT DATE(created_at), COUNT(*), COALESCE(SUM(total), 0) FROM orders " +
+                        "WHERE created_at >= ? AND created_at < ? AND status <> ? " +
+                        "GROUP BY DATE(created_at) ORDER BY DATE(created_at)",
+                (rs, rowNum) -> new RevenueResponse.Day(rs.getDate(1).toLocalDate(), rs.getLong(2), rs.getDouble(3)),
+                Timestamp.valueOf(from), Timestamp.valueOf(to), OrderStatus.CANCELLED.name());
+    }
+
+    private static String placeholders(int count) {
+        return String.join(", ", Collections.nCopies(count, "?"));
+    }
+}
@@ -0,0 +1,65 @@
+package com.nickolas.caffebackend.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Пакетні операції над резервами складу {@link com.nickolas.caffebackend.model.StockReservation} через JDBC.
+ */
+@Repository
+public class StockReservationJdbcRepository {
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public StockReservationJdbcRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Записує резерви замовлення одним пакетом.
+     *
+     * @param orderId ідентифікатор замовлення
+     * @param amounts ідентифікатор запасу → зарезервована кількість
+     */
+    public void insertAll(Long orderId, Map<Long, Double> amounts) {
+        List<Map.Entry<Long, Double>> entries = new ArrayList<>(amounts.entrySet());
+        jdbcTemplate.batchUpdate("INSERT INTO stock_reservation (order_id, ingredient_stock_id, amount) VALUES (?, ?, ?)",
+                entries, entries.size(), (ps, entry) -> {
+                    ps.setLong(1, orderId);
+                    ps.setLong(2, entry.getKey());
+                    ps.setDouble(3, entry.getValue());
+                });
+    }
+
+    /**
+     * Читає резерви замовлення з блокуванням рядків, тож конкурентне скасування
+     * того самого замовлення дочекається цієї транзакції і побачить вже видалені резерви.
+     *
+     * @param orderId ідентифікатор замовлення
+     * @return ідентифікатор запасу → зарезервована кількість
+     */
+    public Map<Long, Double> lockByOrderId(Long orderId) {
+        Map<Long, Double> amounts = new HashMap<>();
+        jdbcTemplate.query("SELECT ingredient_stock_id, amount FROM stock_reservation WHERE order_id = ? FOR UPDATE",
+                rs -> {
+                    amounts.merge(rs.getLong(1), rs.getDouble(2), Double::sum);
+                }, orderId);
+        return amounts;
+    }
+
+    /**
+     * Видаляє резерви замовлення.
+     *
+     * @param orderId ідентифікатор замовлення
+     * @return кількість видалених записів
+     */
+    public int deleteByOrderId(Long orderId) {
+        return jdbcTemplate.update("DELETE FROM stock_reservation WHERE order_id = ?", orderId);
+    }
+}
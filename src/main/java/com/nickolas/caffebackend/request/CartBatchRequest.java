@@ -0,0 +1,25 @@
+package com.nickolas.caffebackend.request;
+
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO для пакетної зміни кошика: список операцій, що застосовуються разом.
+ */
+@Data
+public class CartBatchRequest {
+    private List<Operation> operations = new ArrayList<>();
+    private Long expectedVersion; // необов'язкова версія кошика, з якою працював клієнт
+
+    /**
+     * Одна операція над кошиком.
+     */
+    @Data
+    public static class Operation {
+        private String op; // "add", "update" або "remove"
+        private Long dishId;
+        private int quantity;
+    }
+}
@@ -17,4 +17,6 @@ public class CreateOrderRequest {
     private String apartment;
 
     private String pickupPoint;
+
+    private String guestCart; // токен гостьового кошика, необов'язковий
 }
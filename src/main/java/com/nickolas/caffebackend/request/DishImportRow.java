@@ -0,0 +1,22 @@
+package com.nickolas.caffebackend.request;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Один рядок файлу масового імпорту меню.
+ * Категорію можна вказати ідентифікатором або назвою.
+ */
+@Data
+public class DishImportRow {
+    private String name;
+    private String description;
+    private Double price;
+    private String imageUrl;
+    private String weight;
+    private String preparationTime;
+    private Long categoryId;
+    private String categoryName;
+    private List<IngredientRequest> ingredients;
+}
@@ -0,0 +1,17 @@
+package com.nickolas.caffebackend.request;
+
+import com.nickolas.caffebackend.domain.OrderStatus;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * Фільтри стрічки замовлень для адміністратора. Усі поля необов'язкові.
+ */
+@Data
+public class OrderFeedFilter {
+    private OrderStatus status;
+    private LocalDateTime from; // включно
+    private LocalDateTime to; // не включно
+    private String deliveryType;
+}
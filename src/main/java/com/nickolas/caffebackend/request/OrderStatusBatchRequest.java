@@ -0,0 +1,16 @@
+package com.nickolas.caffebackend.request;
+
+import com.nickolas.caffebackend.domain.OrderStatus;
+import lombok.Data;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * DTO для переведення кількох замовлень у новий статус.
+ */
+@Data
+public class OrderStatusBatchRequest {
+    private List<Long> orderIds = new ArrayList<>();
+    private OrderStatus status;
+}
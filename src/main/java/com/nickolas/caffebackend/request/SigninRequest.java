@@ -9,4 +9,5 @@ import lombok.Data;
 public class SigninRequest {
     private String email;
     private String password;
+    private String guestCart; // токен гостьового кошика, необов'язковий
 }
@@ -0,0 +1,46 @@
+package com.nickolas.caffebackend.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Зміни кошика після пакетної операції: лише змінені позиції, нові підсумки та версія кошика.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartDeltaResponse {
+    private Long cartId;
+
+    /** Версія кошика після застосування змін. */
+    private long version;
+
+    /** Додані позиції та позиції зі зміненою кількістю. */
+    private List<Line> changed;
+
+    /** Ідентифікатори страв, прибраних з кошика. */
+    private List<Long> removedDishIds;
+
+    /** Загальна кількість одиниць у кошику. */
+    private int itemCount;
+
+    /** Сума кошика. */
+    private double subtotal;
+
+    /**
+     * Позиція кошика в скороченому вигляді.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long dishId;
+        private String name;
+        private double price;
+        private int quantity;
+        private double lineTotal;
+    }
+}
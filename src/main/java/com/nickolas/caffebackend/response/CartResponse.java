@@ -0,0 +1,28 @@
+package com.nickolas.caffebackend.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Кошик користувача для відображення: позиції лише з ідентифікатором, назвою та ціною страви і підсумки.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartResponse {
+    private Long cartId;
+
+    /** Версія кошика, яку клієнт може передати в пакетній зміні. */
+    private long version;
+
+    private List<CartDeltaResponse.Line> items;
+
+    /** Загальна кількість одиниць у кошику. */
+    private int itemCount;
+
+    /** Сума кошика. */
+    private double subtotal;
+}
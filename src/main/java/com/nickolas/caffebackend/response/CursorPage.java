@@ -0,0 +1,43 @@
+package com.nickolas.caffebackend.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Сторінка результатів курсорної пагінації.
+ *
+ * @param <T> тип елементів
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    /** Елементи сторінки. */
+    private List<T> items;
+
+    /** Курсор для отримання наступної сторінки або {@code null}, якщо сторінка остання. */
+    private String nextCursor;
+
+    /** Чи є ще елементи після цієї сторінки. */
+    private boolean hasMore;
+
+    /** Загальна кількість елементів; заповнюється лише на запит. */
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Long totalElements;
+
+    /**
+     * Перетворює елементи сторінки, зберігаючи курсор і лічильники.
+     *
+     * @param mapper функція перетворення
+     * @param <R>    новий тип елементів
+     * @return нова сторінка
+     */
+    public <R> CursorPage<R> map(Function<? super T, ? extends R> mapper) {
+        return new CursorPage<>(items.stream().<R>map(mapper).toList(), nextCursor, hasMore, totalElements);
+    }
+}
@@ -0,0 +1,54 @@
+package com.nickolas.caffebackend.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Фасети для фільтрів меню: кількість страв за категоріями, гістограма цін та межі цін.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DishFacetsResponse {
+    /** Загальна кількість страв у вибірці. */
+    private long totalCount;
+
+    /** Мінімальна ціна або {@code null}, якщо страв немає. */
+    private Double minPrice;
+
+    /** Максимальна ціна або {@code null}, якщо страв немає. */
+    private Double maxPrice;
+
+    /** Гістограма цін з інтервалами однакової ширини. */
+    private List<PriceBucket> priceBuckets;
+
+    /** Кількість страв у кожній категорії. */
+    private List<CategoryCount> categories;
+
+    /**
+     * Ціновий інтервал [from, to) та кількість страв у ньому.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PriceBucket {
+        private double from;
+        private double to;
+        private long count;
+    }
+
+    /**
+     * Кількість страв у категорії.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class CategoryCount {
+        private Long categoryId;
+        private String categoryName;
+        private long count;
+    }
+}
@@ -0,0 +1,51 @@
+package com.nickolas.caffebackend.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Звіт про масовий імпорт страв з результатом для кожного рядка.
+ */
+@Data
+@NoArgsConstructor
+public class DishImportReport {
+    private int total;
+    private int imported;
+    private int failed;
+    private List<RowResult> rows = new ArrayList<>();
+
+    /**
+     * Додає результат рядка та оновлює лічильники.
+     *
+     * @param result результат обробки рядка
+     */
+    public void add(RowResult result) {
+        rows.add(result);
+        total++;
+        if (result.getDishId() != null) {
+            imported++;
+        } else {
+            failed++;
+        }
+    }
+
+    /**
+     * Результат імпорту одного рядка.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        /** Номер рядка у файлі (з 1). */
+        private long row;
+        private String name;
+        /** Ідентифікатор створеної страви або {@code null}, якщо рядок відхилено. */
+        private Long dishId;
+        /** Причина відхилення. */
+        private String error;
+    }
+}
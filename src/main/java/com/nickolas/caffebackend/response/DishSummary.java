@@ -0,0 +1,40 @@
+package com.nickolas.caffebackend.response;
+
+import com.nickolas.caffebackend.model.Dish;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Скорочене представлення страви для списків меню.
+ * Не містить опису та інгредієнтів — їх повертає окремий запит деталей страви.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DishSummary {
+    private Long id;
+    private String name;
+    private double price;
+    private String imageUrl;
+    private String weight;
+    private Long categoryId;
+    private String categoryName;
+
+    /**
+     * Створює скорочене представлення страви.
+     *
+     * @param dish страва
+     * @return проекція страви
+     */
+    public static DishSummary from(Dish dish) {
+        return new DishSummary(
+                dish.getId(),
+                dish.getName(),
+                dish.getPrice(),
+                dish.getImageUrl(),
+                dish.getWeight(),
+                dish.getCategory() == null ? null : dish.getCategory().getId(),
+                dish.getCategory() == null ? null : dish.getCategory().getName());
+    }
+}
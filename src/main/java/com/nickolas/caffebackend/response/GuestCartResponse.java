@@ -0,0 +1,21 @@
+package com.nickolas.caffebackend.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Гостьовий кошик: оновлений підписаний токен та вміст для відображення.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class GuestCartResponse {
+    /** Токен, який клієнт має надіслати з наступним запитом. */
+    private String token;
+    private List<CartDeltaResponse.Line> lines;
+    private int itemCount;
+    private double subtotal;
+}
@@ -0,0 +1,24 @@
+package com.nickolas.caffebackend.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Повне меню одним документом: усі категорії з їхніми стравами.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuBundleResponse {
+    /** Версія меню, з якої побудовано пакет. */
+    private long version;
+
+    /** Категорії зі стравами. */
+    private List<MenuBundleSection> categories;
+
+    /** Страви без категорії. */
+    private List<DishSummary> uncategorized;
+}
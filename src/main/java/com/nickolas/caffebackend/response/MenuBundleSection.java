@@ -0,0 +1,21 @@
+package com.nickolas.caffebackend.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Категорія меню разом зі стравами у складі повного пакета меню.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MenuBundleSection {
+    private Long id;
+    private String name;
+    private String description;
+    private String imageUrl;
+    private List<DishSummary> dishes;
+}
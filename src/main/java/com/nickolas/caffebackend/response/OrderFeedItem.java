@@ -0,0 +1,39 @@
+package com.nickolas.caffebackend.response;
+
+import com.nickolas.caffebackend.domain.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Замовлення у стрічці адміністратора: лише поля, потрібні для перегляду, без сутностей користувача і страв.
+ */
+@Data
+@NoArgsConstructor
+public class OrderFeedItem {
+    private Long id;
+    private OrderStatus status;
+    private LocalDateTime createdAt;
+    private String userEmail;
+    private String phoneNumber;
+    private String deliveryType;
+    private String deliveryAddress;
+    private Double total; // null для старих замовлень, ще не оброблених заповненням сум
+    private List<Line> items = new ArrayList<>();
+
+    /**
+     * Позиція замовлення.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long dishId;
+        private String dishName;
+        private int quantity;
+    }
+}
@@ -0,0 +1,43 @@
+package com.nickolas.caffebackend.response;
+
+import com.nickolas.caffebackend.domain.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Замовлення для клієнта: позиції лише з ідентифікатором, назвою та ціною страви і підсумок,
+ * без даних користувача та повних сутностей страв.
+ */
+@Data
+@NoArgsConstructor
+public class OrderResponse {
+    private Long id;
+    private OrderStatus status;
+    private LocalDateTime createdAt;
+    private String phoneNumber;
+    private String deliveryType;
+    private String deliveryAddress;
+    private List<Line> items = new ArrayList<>();
+
+    /** Сума замовлення. */
+    private double total;
+
+    /**
+     * Позиція замовлення.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Line {
+        private Long dishId;
+        private String name;
+        private double unitPrice;
+        private int quantity;
+        private double lineTotal;
+    }
+}
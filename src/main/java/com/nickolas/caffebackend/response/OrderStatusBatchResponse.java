@@ -0,0 +1,25 @@
+package com.nickolas.caffebackend.response;
+
+import com.nickolas.caffebackend.domain.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Результат пакетної зміни статусу замовлень.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusBatchResponse {
+    /** Новий статус. */
+    private OrderStatus status;
+
+    /** Замовлення, статус яких змінено. */
+    private List<Long> updated;
+
+    /** Замовлення, для яких перехід не дозволений з їхнього поточного статусу або які не знайдено. */
+    private List<Long> rejected;
+}
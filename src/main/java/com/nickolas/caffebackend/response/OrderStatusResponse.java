@@ -0,0 +1,20 @@
+package com.nickolas.caffebackend.response;
+
+import com.nickolas.caffebackend.domain.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Результат зміни статусу замовлення.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderStatusResponse {
+    /** Ідентифікатор замовлення. */
+    private Long orderId;
+
+    /** Новий статус замовлення. */
+    private OrderStatus status;
+}
@@ -0,0 +1,30 @@
+package com.nickolas.caffebackend.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Стан замовлення, прийнятого на асинхронне оформлення.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OrderTicketResponse {
+    /** Ідентифікатор заявки, за яким відстежується оформлення. */
+    private String ticketId;
+
+    /** QUEUED, COMPLETED або FAILED. */
+    private String status;
+
+    /** Ідентифікатор створеного замовлення, коли оформлення завершено. */
+    private Long orderId;
+
+    /** Причина невдачі. */
+    private String error;
+
+    /** Адреса для перевірки стану. */
+    private String statusUrl;
+}
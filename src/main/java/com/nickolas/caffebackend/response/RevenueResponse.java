@@ -0,0 +1,41 @@
+package com.nickolas.caffebackend.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Виручка за період за зафіксованими сумами замовлень.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueResponse {
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    /** Кількість нескасованих замовлень. */
+    private long orderCount;
+
+    /** Загальна виручка. */
+    private double revenue;
+
+    /** Виручка по днях. */
+    private List<Day> days;
+
+    /**
+     * Виручка за один день.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Day {
+        private LocalDate date;
+        private long orderCount;
+        private double revenue;
+    }
+}
@@ -0,0 +1,221 @@
+package com.nickolas.caffebackend.search;
+
+import com.nickolas.caffebackend.catalog.MenuChangedEvent;
+import com.nickolas.caffebackend.model.Dish;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Інвертований індекс для повнотекстового пошуку страв за назвою та описом.
+ * <p>
+ * Для кожного нормалізованого токена зберігається список страв, у яких він трапляється,
+ * а для кожної триграми — токени словника, що її містять. Це дозволяє шукати за точним
+ * збігом, префіксом (для слова, яке ще набирається) та входженням у середину слова
+ * без сканування всіх страв. Індекс оновлюється інкрементально за подіями {@link MenuChangedEvent}.
+ */
+@Component
+public class DishSearchIndex {
+    private static final int NAME = 1;
+    private static final int DESCRIPTION = 2;
+    private static final int GRAM = 3;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    /** Токен → (ідентифікатор страви → маска полів, у яких трапився токен). */
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    /** Триграма → токени словника, що її містять. */
+    private final Map<String, Set<String>> tokensByGram = new HashMap<>();
+    /** Ідентифікатор страви → її токени, потрібні для видалення зі списків. */
+    private final Map<Long, Set<String>> tokensByDish = new HashMap<>();
+
+    /**
+     * Оновлює індекс відповідно до нового знімка меню.
+     *
+     * @param event подія зміни меню
+     */
+    @EventListener
+    public void onMenuChanged(MenuChangedEvent event) {
+        if (event.isFullReload()) {
+            rebuild(event.getCurrent().getDishes());
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (Long dishId : event.getChangedDishIds()) {
+                removeLocked(dishId);
+                event.getCurrent().findDish(dishId).ifPresent(this::indexLocked);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Перебудовує індекс з нуля.
+     *
+     * @param dishes усі страви меню
+     */
+    public void rebuild(Collection<Dish> dishes) {
+        lock.writeLock().lock();
+        try {
+            postings.clear();
+            tokensByGram.clear();
+            tokensByDish.clear();
+            dishes.forEach(this::indexLocked);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Шукає страви за запитом і повертає їх ідентифікатори, впорядковані за релевантністю.
+     * <p>
+     * Кожне слово запиту має знайтися в назві або описі страви. Збіг у назві важить більше,
+     * ніж в описі; точний збіг — більше, ніж префікс, а префікс — більше, ніж входження.
+     *
+     * @param query  пошуковий рядок
+     * @param limit  максимальна кількість результатів
+     * @param filter додатковий фільтр за ідентифікатором страви
+     * @return ідентифікатори страв від найрелевантнішої
+     */
+    public List<Long> search(String query, int limit, LongPredicate filter) {
+        Set<String> terms = new LinkedHashSet<>(TextNormalizer.tokenize(query));
+        if (terms.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        Map<Long, Double> scores = null;
+        try {
+            for (String term : terms) {
+                Map<Long, Double> termScores = scoreTerm(term);
+                if (scores == null) {
+                    scores = termScores;
+                } else {
+                    Map<Long, Double> termMatches = termScores;
+                    scores.keySet().retainAll(termMatches.keySet());
+                    scores.replaceAll((dishId, score) -> score + termMatches.get(dishId));
+                }
+                if (scores.isEmpty()) {
+                    return List.of();
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return scores.entrySet().stream()
+                .filter(entry -> filter.test(entry.getKey()))
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    private Map<Long, Double> scoreTerm(String term) {
+        Map<Long, Double> scores = new HashMap<>();
+        Map<Long, Integer> exact = postings.get(term);
+        if (exact != null) {
+            accumulate(scores, exact, 10, 3);
+        }
+        for (Map<Long, Integer> prefixed : postings.subMap(term, false, term + Character.MAX_VALUE, false).values()) {
+            accumulate(scores, prefixed, 6, 2);
+        }
+        if (term.length() >= GRAM) {
+            for (String token : infixCandidates(term)) {
+                if (!token.startsWith(term) && token.contains(term)) {
+                    accumulate(scores, postings.get(token), 3, 1);
+                }
+            }
+        }
+        return scores;
+    }
+
+    private Set<String> infixCandidates(String term) {
+        Set<String> candidates = null;
+        for (String gram : grams(term)) {
+            Set<String> tokens = tokensByGram.get(gram);
+            if (tokens == null) {
+                return Set.of();
+            }
+            if (candidates == null) {
+                candidates = new HashSet<>(tokens);
+            } else {
+                candidates.retainAll(tokens);
+            }
+        }
+        return candidates == null ? Set.of() : candidates;
+    }
+
+    private static void accumulate(Map<Long, Double> scores, Map<Long, Integer> posting, double nameWeight, double descriptionWeight) {
+        posting.forEach((dishId, fields) -> {
+            double weight = (fields & NAME) != 0 ? nameWeight : descriptionWeight;
+            scores.merge(dishId, weight, Math::max);
+        });
+    }
+
+    private void indexLocked(Dish dish) {
+        Map<String, Integer> fields = new HashMap<>();
+        TextNormalizer.tokenize(dish.getName()).forEach(token -> fields.merge(token, NAME, (a, b) -> a | b));
+        TextNormalizer.tokenize(dish.getDescription()).forEach(token -> fields.merge(token, DESCRIPTION, (a, b) -> a | b));
+
+        fields.forEach((token, mask) -> {
+            Map<Long, Integer> posting = postings.get(token);
+            if (posting == null) {
+                posting = new HashMap<>();
+                postings.put(token, posting);
+                for (String gram : grams(token)) {
+                    tokensByGram.computeIfAbsent(gram, g -> new HashSet<>()).add(token);
+                }
+            }
+            posting.put(dish.getId(), mask);
+        });
+        tokensByDish.put(dish.getId(), fields.keySet());
+    }
+
+    private void removeLocked(Long dishId) {
+        Set<String> tokens = tokensByDish.remove(dishId);
+        if (tokens == null) {
+            return;
+        }
+        for (String token : tokens) {
+            Map<Long, Integer> posting = postings.get(token);
+            if (posting == null) {
+                continue;
+            }
+            posting.remove(dishId);
+            if (posting.isEmpty()) {
+                postings.remove(token);
+                for (String gram : grams(token)) {
+                    Set<String> gramTokens = tokensByGram.get(gram);
+                    if (gramTokens != null) {
+                        gramTokens.remove(token);
+                        if (gramTokens.isEmpty()) {
+                            tokensByGram.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private static List<String> grams(String token) {
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + GRAM <= token.length(); i++) {
+            grams.add(token.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+}
@@ -0,0 +1,64 @@
+package com.nickolas.caffebackend.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Нормалізація тексту для пошуку з урахуванням української мови.
+ * <p>
+ * Переводить текст у нижній регістр за українською локаллю, прибирає апострофи
+ * (', ’, ʼ, `), зводить ґ до г, ё до е, а латинські двійники кириличних літер,
+ * що часто трапляються при наборі з англійської розкладки (i, ї), до кириличних.
+ */
+public final class TextNormalizer {
+    private static final Locale UKRAINIAN = Locale.forLanguageTag("uk");
+
+    private TextNormalizer() {
+    }
+
+    /**
+     * Нормалізує текст і розбиває його на токени з літер та цифр.
+     *
+     * @param text вхідний текст (може бути {@code null})
+     * @return список нормалізованих токенів у порядку появи
+     */
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String lower = text.toLowerCase(UKRAINIAN);
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i < lower.length(); i++) {
+            char c = lower.charAt(i);
+            if (isApostrophe(c)) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                token.append(fold(c));
+            } else if (!token.isEmpty()) {
+                tokens.add(token.toString());
+                token.setLength(0);
+            }
+        }
+        if (!token.isEmpty()) {
+            tokens.add(token.toString());
+        }
+        return tokens;
+    }
+
+    private static boolean isApostrophe(char c) {
+        return c == '\'' || c == '’' || c == 'ʼ' || c == '`' || c == '‘';
+    }
+
+    private static char fold(char c) {
+        return switch (c) {
+            case 'ґ' -> 'г';
+            case 'ё' -> 'е';
+            case 'i' -> 'і';
+            case 'ï' -> 'ї';
+            default -> c;
+        };
+    }
+}
@@ -1,16 +1,30 @@
 package com.nickolas.caffebackend.service;
 
+import com.nickolas.caffebackend.cart.CartStore;
+import com.nickolas.caffebackend.cart.GuestCartToken;
+import com.nickolas.caffebackend.catalog.MenuCatalog;
 import com.nickolas.caffebackend.model.Cart;
 import com.nickolas.caffebackend.model.CartItem;
+import com.nickolas.caffebackend.catalog.MenuSnapshot;
+import com.nickolas.caffebackend.exception.CartConflictException;
 import com.nickolas.caffebackend.model.Dish;
-import com.nickolas.caffebackend.model.User;
-import com.nickolas.caffebackend.repository.CartRepository;
-import com.nickolas.caffebackend.repository.DishRepository;
-import com.nickolas.caffebackend.repository.UserRepository;
+import com.nickolas.caffebackend.request.CartBatchRequest;
+import com.nickolas.caffebackend.response.CartDeltaResponse;
+import com.nickolas.caffebackend.response.CartResponse;
+import com.nickolas.caffebackend.response.GuestCartResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Сервіс для керування кошиком користувача.
@@ -20,13 +34,13 @@ import java.util.Optional;
 @Service
 public class CartService {
     @Autowired
-    private CartRepository cartRepository;
+    private CartStore cartStore;
 
     @Autowired
-    private DishRepository dishRepository;
+    private MenuCatalog menuCatalog;
 
     @Autowired
-    private UserRepository userRepository;
+    private GuestCartToken guestCartToken;
 
     /**
      * Отримує кошик користувача за його email.
@@ -36,24 +50,73 @@ public class CartService {
      * @return об'єкт {@link Cart}
      */
     public Cart getCartByUserEmail(String email) {
-        return cartRepository.findByUserEmail(email)
-                .orElseGet(() -> createCartForUser(email));
+        Cart cart = cartStore.read(email);
+        if (cart.getSubtotal() == null || cart.getItemCount() == null) {
+            recalculateTotals(cart);
+        }
+        return cart;
+    }
+
+    /**
+     * Повертає кошик користувача для відображення. Кошик читається без завантаження сутностей страв,
+     * назви та ціни позицій беруться зі знімка меню.
+     *
+     * @param email електронна пошта користувача
+     * @return кошик для відображення
+     */
+    public CartResponse getCartView(String email) {
+        return toResponse(cartStore.view(email));
+    }
+
+    /**
+     * Перетворює кошик на відповідь для клієнта.
+     *
+     * @param cart кошик
+     * @return позиції з назвами та цінами зі знімка меню і підсумки
+     */
+    public CartResponse toResponse(Cart cart) {
+        if (cart.getSubtotal() == null || cart.getItemCount() == null) {
+            recalculateTotals(cart);
+        }
+        List<CartDeltaResponse.Line> lines = cart.getItems().stream().map(this::toLine).toList();
+        return new CartResponse(cart.getId(), cart.getVersion(), lines, cart.getItemCount(), cart.getSubtotal());
+    }
+
+    /**
+     * Атомарно застосовує зміну до кошика користувача через поточне сховище кошиків.
+     * Зміна має підтримувати підсумки кошика, змінюючи кількості через {@link #setQuantity};
+     * якщо підсумків ще немає, вони обчислюються перед зміною.
+     *
+     * @param email  електронна пошта користувача
+     * @param change зміна кошика
+     * @return оновлений об'єкт {@link Cart}
+     */
+    public Cart mutate(String email, Consumer<Cart> change) {
+        return cartStore.mutate(email, cart -> {
+            if (cart.getSubtotal() == null || cart.getItemCount() == null) {
+                recalculateTotals(cart);
+            }
+            change.accept(cart);
+            cart.setUpdatedAt(LocalDateTime.now());
+        });
     }
 
+    /**
+     * Примусово зберігає в БД незбережені зміни кошика користувача.
+     *
+     * @param email електронна пошта користувача
+     */
+    public void flush(String email) {
+        cartStore.flush(email);
+    }
 
     /**
-     * Створює новий кошик для користувача.
+     * Відкидає копію кошика в пам'яті після зміни кошика в БД в обхід сховища.
      *
      * @param email електронна пошта користувача
-     * @return створений об'єкт {@link Cart}
-     * @throws RuntimeException якщо користувача не знайдено
      */
-    private Cart createCartForUser(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        Cart cart = new Cart();
-        cart.setUser(user);
-        return cartRepository.save(cart);
+    public void invalidate(String email) {
+        cartStore.invalidate(email);
     }
 
     /**
@@ -68,26 +131,14 @@ public class CartService {
      */
     // Додавання страви до кошика
     public Cart addDishToCart(String email, Long dishId, int quantity) {
-        Cart cart = getCartByUserEmail(email);
-        Dish dish = dishRepository.findById(dishId)
-                .orElseThrow(() -> new RuntimeException("Dish not found"));
-
-        Optional<CartItem> existingItem = cart.getItems().stream()
-                .filter(item -> item.getDish().getId().equals(dishId))
-                .findFirst();
-
-        if (existingItem.isPresent()) {
-            CartItem item = existingItem.get();
-            item.setQuantity(item.getQuantity() + quantity);
-        } else {
-            CartItem newItem = new CartItem();
-            newItem.setCart(cart);
-            newItem.setDish(dish);
-            newItem.setQuantity(quantity);
-            cart.getItems().add(newItem);
-        }
-
-        return cartRepository.save(cart);
+        // Страва береться всередині зміни: повтор після конфлікту версій має бачити ціну,
+        // за якою вже скориговано суму кошика.
+        return mutate(email, cart -> {
+            Dish dish = menuCatalog.snapshot().findDish(dishId)
+                    .orElseThrow(() -> new RuntimeException("Dish not found"));
+            int current = findItem(cart, dishId).map(CartItem::getQuantity).orElse(0);
+            setQuantity(cart, dish, current + quantity);
+        });
     }
 
     /**
@@ -99,13 +150,8 @@ public class CartService {
      * @return оновлений об'єкт {@link Cart}
      */
     public Cart updateDishQuantity(String email, Long dishId, int quantity) {
-        Cart cart = getCartByUserEmail(email);
-        cart.getItems().forEach(item -> {
-            if (item.getDish().getId().equals(dishId)) {
-                item.setQuantity(quantity);
-            }
-        });
-        return cartRepository.save(cart);
+        return mutate(email, cart -> findItem(cart, dishId)
+                .ifPresent(item -> setQuantity(cart, currentDish(item), quantity)));
     }
 
     /**
@@ -116,9 +162,211 @@ public class CartService {
      * @return оновлений об'єкт {@link Cart}
      */
     public Cart removeDishFromCart(String email, Long dishId) {
-        Cart cart = getCartByUserEmail(email);
-        cart.getItems().removeIf(item -> item.getDish().getId().equals(dishId));
-        return cartRepository.save(cart);
+        return mutate(email, cart -> findItem(cart, dishId)
+                .ifPresent(item -> setQuantity(cart, currentDish(item), 0)));
+    }
+
+    /**
+     * Застосовує список операцій до кошика як одну зміну: або всі, або жодна.
+     *
+     * @param email   електронна пошта користувача
+     * @param request операції add (збільшити кількість), update (встановити кількість,
+     *                нуль або менше — видалити) та remove
+     * @return змінені позиції, нові підсумки та версія кошика
+     * @throws CartConflictException якщо версія кошика не збігається з очікуваною
+     * @throws RuntimeException якщо операція невідома або страву не знайдено
+     */
+    public CartDeltaResponse applyBatch(String email, CartBatchRequest request) {
+        // Операції перевіряються до звернення до сховища; страви з цінами беруться ще раз усередині зміни,
+        // щоб повтор після конфлікту версій не використав застарілу ціну.
+        resolveDishes(request.getOperations());
+        Map<Long, Integer> before = new HashMap<>();
+        Cart cart = mutate(email, target -> {
+            if (request.getExpectedVersion() != null && request.getExpectedVersion() != target.getVersion()) {
+                throw new CartConflictException("Cart version is " + target.getVersion()
+                        + ", expected " + request.getExpectedVersion());
+            }
+            before.clear();
+            target.getItems().forEach(item -> before.put(item.getDish().getId(), item.getQuantity()));
+            applyOperations(target, request.getOperations(), resolveDishes(request.getOperations()));
+        });
+
+        List<CartDeltaResponse.Line> changed = new ArrayList<>();
+        Set<Long> present = new HashSet<>();
+        for (CartItem item : cart.getItems()) {
+            present.add(item.getDish().getId());
+            if (!Integer.valueOf(item.getQuantity()).equals(before.get(item.getDish().getId()))) {
+                changed.add(toLine(item));
+            }
+        }
+        List<Long> removed = before.keySet().stream().filter(dishId -> !present.contains(dishId)).sorted().toList();
+        return new CartDeltaResponse(cart.getId(), cart.getVersion(), changed, removed, cart.getItemCount(), cart.getSubtotal());
+    }
+
+    /**
+     * Повертає вміст гостьового кошика без звернень до БД.
+     * Недійсний або прострочений токен дає порожній кошик зі свіжим токеном.
+     *
+     * @param token токен гостьового кошика або {@code null}
+     * @return вміст кошика та оновлений токен
+     */
+    public GuestCartResponse viewGuestCart(String token) {
+        return toGuestResponse(guestCart(guestCartToken.decodeOrEmpty(token)));
+    }
+
+    /**
+     * Застосовує операції до гостьового кошика без звернень до БД.
+     * Недійсний або прострочений токен вважається порожнім кошиком.
+     *
+     * @param token   токен гостьового кошика або {@code null}
+     * @param request операції add / update / remove
+     * @return новий вміст кошика та токен
+     * @throws RuntimeException якщо операція некоректна, страву не знайдено або кошик перевищує обмеження
+     */
+    public GuestCartResponse applyGuestBatch(String token, CartBatchRequest request) {
+        Map<Long, Dish> dishes = resolveDishes(request.getOperations());
+        Cart cart = guestCart(guestCartToken.decodeOrEmpty(token));
+        recalculateTotals(cart);
+        applyOperations(cart, request.getOperations(), dishes);
+        return toGuestResponse(cart);
+    }
+
+    /**
+     * Переносить вміст гостьового кошика в кошик користувача однією зміною.
+     * Для однакових страв залишається більша з двох кількостей, тож повторний вхід з тим самим токеном
+     * не подвоює кошик. Страви, яких уже немає в меню, пропускаються.
+     *
+     * @param email електронна пошта користувача
+     * @param token токен гостьового кошика або {@code null}
+     * @throws IllegalArgumentException якщо токен пошкоджений або підроблений
+     */
+    public void mergeGuestCart(String email, String token) {
+        Map<Long, Integer> lines = guestCartToken.decode(token);
+        if (lines.isEmpty()) {
+            return;
+        }
+        mutate(email, target -> {
+            MenuSnapshot snapshot = menuCatalog.snapshot();
+            lines.forEach((dishId, quantity) -> snapshot.findDish(dishId).ifPresent(dish -> {
+                int current = findItem(target, dishId).map(CartItem::getQuantity).orElse(0);
+                setQuantity(target, dish, Math.max(current, quantity));
+            }));
+        });
+    }
+
+    private Map<Long, Dish> resolveDishes(List<CartBatchRequest.Operation> operations) {
+        MenuSnapshot snapshot = menuCatalog.snapshot();
+        Map<Long, Dish> dishes = new HashMap<>();
+        for (CartBatchRequest.Operation operation : operations) {
+            if (!Set.of("add", "update", "remove").contains(operation.getOp())) {
+                throw new RuntimeException("Unknown cart operation: " + operation.getOp());
+            }
+            Dish dish = snapshot.findDish(operation.getDishId())
+                    .orElseThrow(() -> new RuntimeException("Dish not found: " + operation.getDishId()));
+            dishes.put(dish.getId(), dish);
+        }
+        return dishes;
+    }
+
+    private static void applyOperations(Cart target, List<CartBatchRequest.Operation> operations, Map<Long, Dish> dishes) {
+        for (CartBatchRequest.Operation operation : operations) {
+            Dish dish = dishes.get(operation.getDishId());
+            int current = findItem(target, dish.getId()).map(CartItem::getQuantity).orElse(0);
+            int quantity = switch (operation.getOp()) {
+                case "add" -> current + operation.getQuantity();
+                case "update" -> operation.getQuantity();
+                default -> 0;
+            };
+            setQuantity(target, dish, quantity);
+        }
+    }
+
+    private static Optional<CartItem> findItem(Cart cart, Long dishId) {
+        return cart.getItems().stream()
+                .filter(item -> item.getDish().getId().equals(dishId))
+                .findFirst();
+    }
+
+    /**
+     * Встановлює кількість страви в кошику та інкрементально оновлює підсумки
+     * на різницю кількостей за поточною ціною страви. Нуль або менше — видалити позицію.
+     *
+     * @param cart     кошик з обчисленими підсумками
+     * @param dish     страва з поточного знімка меню
+     * @param quantity нова кількість
+     */
+    static void setQuantity(Cart cart, Dish dish, int quantity) {
+        Optional<CartItem> existing = findItem(cart, dish.getId());
+        int previous = existing.map(CartItem::getQuantity).orElse(0);
+        int next = Math.max(quantity, 0);
+        if (next == previous) {
+            return;
+        }
+        if (next == 0) {
+            cart.getItems().remove(existing.get());
+        } else if (existing.isPresent()) {
+            existing.get().setQuantity(next);
+        } else {
+            CartItem newItem = new CartItem();
+            newItem.setCart(cart);
+            newItem.setDish(dish);
+            newItem.setQuantity(next);
+            cart.getItems().add(newItem);
+        }
+        cart.setItemCount(cart.getItemCount() + next - previous);
+        cart.setSubtotal(cart.getSubtotal() + dish.getPrice() * (next - previous));
+    }
+
+    /**
+     * Повністю перераховує підсумки кошика за поточними цінами меню.
+     *
+     * @param cart кошик
+     */
+    private void recalculateTotals(Cart cart) {
+        int itemCount = 0;
+        double subtotal = 0;
+        for (CartItem item : cart.getItems()) {
+            itemCount += item.getQuantity();
+            subtotal += currentDish(item).getPrice() * item.getQuantity();
+        }
+        cart.setItemCount(itemCount);
+        cart.setSubtotal(subtotal);
+    }
+
+    /**
+     * Повертає страву позиції з поточного знімка меню, щоб ціна була актуальною.
+     */
+    private Dish currentDish(CartItem item) {
+        return menuCatalog.snapshot().findDish(item.getDish().getId()).orElse(item.getDish());
+    }
+
+    private Cart guestCart(Map<Long, Integer> lines) {
+        MenuSnapshot snapshot = menuCatalog.snapshot();
+        Cart cart = new Cart();
+        lines.forEach((dishId, quantity) -> snapshot.findDish(dishId).ifPresent(dish -> {
+            CartItem item = new CartItem();
+            item.setCart(cart);
+            item.setDish(dish);
+            item.setQuantity(quantity);
+            cart.getItems().add(item);
+        }));
+        return cart;
+    }
+
+    private GuestCartResponse toGuestResponse(Cart cart) {
+        Map<Long, Integer> lines = new LinkedHashMap<>();
+        cart.getItems().forEach(item -> lines.put(item.getDish().getId(), item.getQuantity()));
+        List<CartDeltaResponse.Line> view = cart.getItems().stream().map(this::toLine).toList();
+        if (cart.getSubtotal() == null || cart.getItemCount() == null) {
+            recalculateTotals(cart);
+        }
+        return new GuestCartResponse(guestCartToken.encode(lines), view, cart.getItemCount(), cart.getSubtotal());
+    }
+
+    private CartDeltaResponse.Line toLine(CartItem item) {
+        Dish dish = currentDish(item);
+        return new CartDeltaResponse.Line(dish.getId(), dish.getName(), dish.getPrice(), item.getQuantity(),
+                dish.getPrice() * item.getQuantity());
     }
 
     /**
@@ -127,8 +375,10 @@ public class CartService {
      * @param email електронна пошта користувача
      */
     public void clearCart(String email) {
-        Cart cart = getCartByUserEmail(email);
-        cart.getItems().clear();
-        cartRepository.save(cart);
+        mutate(email, cart -> {
+            cart.getItems().clear();
+            cart.setItemCount(0);
+            cart.setSubtotal(0.0);
+        });
     }
 }
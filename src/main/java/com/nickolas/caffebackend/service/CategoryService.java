@@ -1,5 +1,6 @@
 package com.nickolas.caffebackend.service;
 
+import com.nickolas.caffebackend.catalog.MenuCatalog;
 import com.nickolas.caffebackend.model.Category;
 import com.nickolas.caffebackend.repository.CategoryRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -15,15 +16,18 @@ import java.util.Optional;
 @Service
 public class CategoryService {
     private final CategoryRepository categoryRepository;
+    private final MenuCatalog menuCatalog;
 
     /**
      * Конструктор з впровадженням залежності репозиторію категорій.
      *
      * @param categoryRepository репозиторій для доступу до категорій
+     * @param menuCatalog        модель читання меню
      */
     @Autowired
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, MenuCatalog menuCatalog) {
         this.categoryRepository = categoryRepository;
+        this.menuCatalog = menuCatalog;
     }
 
     /**
@@ -33,7 +37,9 @@ public class CategoryService {
      * @return збережена категорія
      */
     public Category createCategory(Category category) {
-        return categoryRepository.save(category);
+        Category savedCategory = categoryRepository.save(category);
+        menuCatalog.categorySaved(savedCategory);
+        return savedCategory;
     }
 
     /**
@@ -42,7 +48,7 @@ public class CategoryService {
      * @return список категорій
      */
     public List<Category> getAllCategories() {
-        return categoryRepository.findAll();
+        return menuCatalog.snapshot().getCategories();
     }
 
     /**
@@ -52,7 +58,7 @@ public class CategoryService {
      * @return {@link Optional} з категорією або порожній, якщо не знайдено
      */
     public Optional<Category> getCategoryById(Long id) {
-        return categoryRepository.findById(id);
+        return menuCatalog.snapshot().findCategory(id);
     }
 
     /**
@@ -66,7 +72,9 @@ public class CategoryService {
     public Category updateCategory(Long id, Category category) {
         if (categoryRepository.existsById(id)) {
             category.setId(id);
-            return categoryRepository.save(category);
+            Category savedCategory = categoryRepository.save(category);
+            menuCatalog.categorySaved(savedCategory);
+            return savedCategory;
         }
         throw new RuntimeException("Category not found");
     }
@@ -80,6 +88,7 @@ public class CategoryService {
     public void deleteCategory(Long id) {
         if (categoryRepository.existsById(id)) {
             categoryRepository.deleteById(id);
+            menuCatalog.categoryDeleted(id);
         } else {
             throw new RuntimeException("Category not found");
         }
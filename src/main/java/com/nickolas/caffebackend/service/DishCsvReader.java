@@ -0,0 +1,142 @@
+package com.nickolas.caffebackend.service;
+
+import com.nickolas.caffebackend.request.DishImportRow;
+import com.nickolas.caffebackend.request.IngredientRequest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Потоковий читач CSV-файлу імпорту меню (RFC 4180: лапки, екранування "" та переноси рядків у лапках).
+ * <p>
+ * Перший рядок — заголовок з назвами колонок: name, description, price, imageUrl, weight,
+ * preparationTime, categoryId, categoryName, ingredients. Інгредієнти записуються як
+ * {@code назва:кількість;назва:кількість}.
+ */
+class DishCsvReader {
+    private final BufferedReader reader;
+    private Map<String, Integer> columns;
+
+    DishCsvReader(BufferedReader reader) {
+        this.reader = reader;
+    }
+
+    /**
+     * Читає наступний запис файлу.
+     *
+     * @return рядок імпорту або {@code null}, якщо файл закінчився
+     * @throws IOException              у разі помилки читання
+     * @throws IllegalArgumentException якщо значення в рядку некоректні
+     */
+    DishImportRow next() throws IOException {
+        if (columns == null) {
+            List<String> header = nextRecord();
+            if (header == null) {
+                return null;
+            }
+            columns = new HashMap<>();
+            for (int i = 0; i < header.size(); i++) {
+                columns.put(header.get(i).trim().toLowerCase(Locale.ROOT), i);
+            }
+        }
+
+        List<String> record;
+        do {
+            record = nextRecord();
+            if (record == null) {
+                return null;
+            }
+        } while (record.size() == 1 && record.get(0).isBlank());
+
+        DishImportRow row = new DishImportRow();
+        row.setName(value(record, "name"));
+        row.setDescription(value(record, "description"));
+        String price = value(record, "price");
+        row.setPrice(price == null ? null : Double.parseDouble(price.replace(',', '.')));
+        row.setImageUrl(value(record, "imageurl"));
+        row.setWeight(value(record, "weight"));
+        row.setPreparationTime(value(record, "preparationtime"));
+        String categoryId = value(record, "categoryid");
+        row.setCategoryId(categoryId == null ? null : Long.parseLong(categoryId));
+        row.setCategoryName(value(record, "categoryname"));
+        row.setIngredients(ingredients(value(record, "ingredients")));
+        return row;
+    }
+
+    private String value(List<String> record, String column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size()) {
+            return null;
+        }
+        String value = record.get(index).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    private static List<IngredientRequest> ingredients(String value) {
+        List<IngredientRequest> ingredients = new ArrayList<>();
+        if (value == null) {
+            return ingredients;
+        }
+        for (String part : value.split(";")) {
+            if (part.isBlank()) {
+                continue;
+            }
+            int separator = part.lastIndexOf(':');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Неправильний формат інгредієнта: " + part);
+            }
+            IngredientRequest ingredient = new IngredientRequest();
+            ingredient.setName(part.substring(0, separator).trim());
+            ingredient.setQuantity(part.substring(separator + 1).trim());
+            ingredients.add(ingredient);
+        }
+        return ingredients;
+    }
+
+    private List<String> nextRecord() throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        boolean any = false;
+        int c;
+        while ((c = reader.read()) != -1) {
+            any = true;
+            if (quoted) {
+                if (c == '"') {
+                    reader.mark(1);
+                    int next = reader.read();
+                    if (next == '"') {
+                        field.append('"');
+                    } else {
+                        quoted = false;
+                        if (next != -1) {
+                            reader.reset();
+                        }
+                    }
+                } else {
+                    field.append((char) c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else if (c == '\n') {
+                fields.add(field.toString());
+                return fields;
+            } else if (c != '\r') {
+                field.append((char) c);
+            }
+        }
+        if (!any) {
+            return null;
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,303 @@
+package com.nickolas.caffebackend.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.nickolas.caffebackend.catalog.MenuCatalog;
+import com.nickolas.caffebackend.model.Category;
+import com.nickolas.caffebackend.model.Dish;
+import com.nickolas.caffebackend.model.Ingredient;
+import com.nickolas.caffebackend.model.IngredientStock;
+import com.nickolas.caffebackend.repository.CategoryRepository;
+import com.nickolas.caffebackend.repository.DishJdbcRepository;
+import com.nickolas.caffebackend.repository.IngredientStockJdbcRepository;
+import com.nickolas.caffebackend.repository.IngredientStockRepository;
+import com.nickolas.caffebackend.request.DishImportRow;
+import com.nickolas.caffebackend.request.IngredientRequest;
+import com.nickolas.caffebackend.response.DishImportReport;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Сервіс масового імпорту страв з файлу NDJSON, JSON-масиву або CSV.
+ * <p>
+ * Файл читається потоково, тож пам'ять не залежить від його розміру. Рядки обробляються
+ * порціями: кожна порція — окрема транзакція, в якій усі потрібні запаси складу
+ * завантажуються й блокуються одним запитом, а страви, інгредієнти та списання
+ * записуються JDBC-пакетами. Некоректні рядки відхиляються поодинці й потрапляють у звіт.
+ */
+@Service
+public class DishImportService {
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final CategoryRepository categoryRepository;
+    private final IngredientStockRepository ingredientStockRepository;
+    private final DishJdbcRepository dishJdbcRepository;
+    private final IngredientStockJdbcRepository ingredientStockJdbcRepository;
+    private final MenuCatalog menuCatalog;
+    private final int chunkSize;
+
+    /**
+     * Конструктор з впровадженням залежностей.
+     *
+     * @param objectMapper                  парсер JSON
+     * @param transactionManager            менеджер транзакцій для порцій
+     * @param categoryRepository            репозиторій категорій
+     * @param ingredientStockRepository     репозиторій складу інгредієнтів
+     * @param dishJdbcRepository            пакетний запис страв
+     * @param ingredientStockJdbcRepository пакетне списання зі складу
+     * @param menuCatalog                   модель читання меню
+     * @param chunkSize                     кількість рядків в одній транзакції
+     */
+    @Autowired
+    public DishImportService(ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                             CategoryRepository categoryRepository, IngredientStockRepository ingredientStockRepository,
+                             DishJdbcRepository dishJdbcRepository, IngredientStockJdbcRepository ingredientStockJdbcRepository,
+                             MenuCatalog menuCatalog, @Value("${menu.import.chunk-size:200}") int chunkSize) {
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.categoryRepository = categoryRepository;
+        this.ingredientStockRepository = ingredientStockRepository;
+        this.dishJdbcRepository = dishJdbcRepository;
+        this.ingredientStockJdbcRepository = ingredientStockJdbcRepository;
+        this.menuCatalog = menuCatalog;
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * Імпортує страви з потоку.
+     *
+     * @param input       вміст файлу
+     * @param contentType тип вмісту: text/csv, application/x-ndjson або application/json
+     * @return звіт з результатом для кожного рядка
+     * @throws IOException у разі помилки читання потоку
+     */
+    public DishImportReport importDishes(InputStream input, String contentType) throws IOException {
+        DishImportReport report = new DishImportReport();
+        Map<String, Category> categories = new HashMap<>();
+        for (Category category : categoryRepository.findAll()) {
+            categories.put("id:" + category.getId(), category);
+            if (category.getName() != null) {
+                categories.putIfAbsent("name:" + category.getName().toLowerCase(Locale.ROOT), category);
+            }
+        }
+
+        List<ParsedRow> chunk = new ArrayList<>(chunkSize);
+        RowSource source = open(input, contentType);
+        long rowNumber = 0;
+        while (true) {
+            rowNumber++;
+            ParsedRow row;
+            try {
+                DishImportRow value = source.next();
+                if (value == null) {
+                    break;
+                }
+                row = new ParsedRow(rowNumber, value, null);
+            } catch (IllegalArgumentException e) {
+                row = new ParsedRow(rowNumber, null, "Неправильний формат рядка: " + e.getMessage());
+            } catch (IOException e) {
+                report.add(new DishImportReport.RowResult(rowNumber, null, null,
+                        "Не вдалося прочитати файл далі: " + e.getMessage()));
+                break;
+            }
+            chunk.add(row);
+            if (chunk.size() == chunkSize) {
+                importChunk(chunk, categories, report);
+                chunk.clear();
+            }
+        }
+        importChunk(chunk, categories, report);
+
+        if (report.getImported() > 0) {
+            menuCatalog.reload();
+        }
+        return report;
+    }
+
+    private RowSource open(InputStream input, String contentType) throws IOException {
+        if (contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("text/csv")) {
+            DishCsvReader reader = new DishCsvReader(new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)));
+            return reader::next;
+        }
+        MappingIterator<DishImportRow> iterator = objectMapper.readerFor(DishImportRow.class).readValues(input);
+        return () -> {
+            try {
+                return iterator.hasNextValue() ? iterator.nextValue() : null;
+            } catch (JsonProcessingException e) {
+                throw new IOException(e.getOriginalMessage(), e);
+            }
+        };
+    }
+
+    private void importChunk(List<ParsedRow> chunk, Map<String, Category> categories, DishImportReport report) {
+        if (chunk.isEmpty()) {
+            return;
+        }
+        Map<String, Category> createdCategories = new HashMap<>();
+        List<DishImportReport.RowResult> results;
+        try {
+            results = transactionTemplate.execute(status -> writeChunk(chunk, categories, createdCategories));
+            categories.putAll(createdCategories);
+        } catch (RuntimeException e) {
+            results = chunk.stream()
+                    .map(row -> new DishImportReport.RowResult(row.number(), row.value() == null ? null : row.value().getName(),
+                            null, "Порцію відкочено: " + e.getMessage()))
+                    .toList();
+        }
+        results.forEach(report::add);
+    }
+
+    private List<DishImportReport.RowResult> writeChunk(List<ParsedRow> chunk, Map<String, Category> categories,
+                                                        Map<String, Category> createdCategories) {
+        Set<String> stockNames = new HashSet<>();
+        for (ParsedRow row : chunk) {
+            if (row.value() != null && row.value().getIngredients() != null) {
+                row.value().getIngredients().stream()
+                        .filter(ingredient -> ingredient.getName() != null)
+                        .forEach(ingredient -> stockNames.add(ingredient.getName().toLowerCase(Locale.ROOT)));
+            }
+        }
+        Map<String, IngredientStock> stocks = new HashMap<>();
+        Map<Long, Double> remaining = new HashMap<>();
+        if (!stockNames.isEmpty()) {
+            for (IngredientStock stock : ingredientStockRepository.lockAllByLowerNameIn(stockNames)) {
+                stocks.putIfAbsent(stock.getName().toLowerCase(Locale.ROOT), stock);
+                remaining.put(stock.getId(), stock.getAvailableQuantity());
+            }
+        }
+
+        Map<Long, Double> consumed = new HashMap<>();
+        List<Dish> dishes = new ArrayList<>();
+        List<Ingredient> ingredients = new ArrayList<>();
+        Map<ParsedRow, Dish> accepted = new HashMap<>();
+        Map<ParsedRow, String> errors = new HashMap<>();
+
+        for (ParsedRow row : chunk) {
+            if (row.error() != null) {
+                errors.put(row, row.error());
+                continue;
+            }
+            try {
+                Dish dish = toDish(row.value(), categories, createdCategories);
+                Map<Long, Double> needed = new HashMap<>();
+                for (IngredientRequest request : row.value().getIngredients() == null ? List.<IngredientRequest>of() : row.value().getIngredients()) {
+                    IngredientStock stock = request.getName() == null ? null : stocks.get(request.getName().toLowerCase(Locale.ROOT));
+                    if (stock == null) {
+                        throw new IllegalArgumentException("Інгредієнт '" + request.getName() + "' не знайдено на складі");
+                    }
+                    needed.merge(stock.getId(), (double) DishService.parseQuantity(request.getQuantity()), Double::sum);
+
+                    Ingredient ingredient = new Ingredient();
+                    ingredient.setName(request.getName());
+                    ingredient.setQuantity(request.getQuantity());
+                    ingredient.setUnit(stock.getUnit());
+                    ingredient.setIngredientStock(stock);
+                    ingredient.setDish(dish);
+                    dish.getIngredients().add(ingredient);
+                }
+                for (Map.Entry<Long, Double> need : needed.entrySet()) {
+                    double available = remaining.get(need.getKey());
+                    if (available < need.getValue()) {
+                        throw new IllegalArgumentException("Недостатньо інгредієнта (id " + need.getKey() + "). Доступно: "
+                                + available + ", потрібно: " + need.getValue());
+                    }
+                }
+                needed.forEach((stockId, amount) -> {
+                    remaining.merge(stockId, -amount, Double::sum);
+                    consumed.merge(stockId, amount, Double::sum);
+                });
+                dishes.add(dish);
+                ingredients.addAll(dish.getIngredients());
+                accepted.put(row, dish);
+            } catch (RuntimeException e) {
+                errors.put(row, e.getMessage());
+            }
+        }
+
+        dishJdbcRepository.insertDishes(dishes);
+        dishJdbcRepository.insertIngredients(ingredients);
+        List<Long> shortStocks = ingredientStockJdbcRepository.decrementAll(consumed);
+        if (!shortStocks.isEmpty()) {
+            throw new IllegalStateException("Залишки складу змінилися під час імпорту: " + shortStocks);
+        }
+
+        List<DishImportReport.RowResult> results = new ArrayList<>(chunk.size());
+        for (ParsedRow row : chunk) {
+            Dish dish = accepted.get(row);
+            String name = row.value() == null ? null : row.value().getName();
+            results.add(new DishImportReport.RowResult(row.number(), name, dish == null ? null : dish.getId(), errors.get(row)));
+        }
+        return results;
+    }
+
+    private Dish toDish(DishImportRow row, Map<String, Category> categories, Map<String, Category> createdCategories) {
+        if (row.getName() == null || row.getName().isBlank()) {
+            throw new IllegalArgumentException("Назва страви обов'язкова");
+        }
+        if (row.getPrice() == null || row.getPrice() < 0) {
+            throw new IllegalArgumentException("Некоректна ціна");
+        }
+
+        Dish dish = new Dish();
+        dish.setName(row.getName());
+        dish.setDescription(row.getDescription());
+        dish.setPrice(row.getPrice());
+        dish.setImageUrl(row.getImageUrl());
+        dish.setWeight(row.getWeight());
+        dish.setPreparationTime(row.getPreparationTime());
+
+        if (row.getCategoryId() != null) {
+            Category category = categories.get("id:" + row.getCategoryId());
+            if (category == null) {
+                throw new IllegalArgumentException("Category not found with id: " + row.getCategoryId());
+            }
+            dish.setCategory(category);
+        } else if (row.getCategoryName() != null && !row.getCategoryName().isBlank()) {
+            String key = "name:" + row.getCategoryName().toLowerCase(Locale.ROOT);
+            Category category = categories.get(key);
+            if (category == null) {
+                category = createdCategories.get(key);
+            }
+            if (category == null) {
+                Category newCategory = new Category();
+                newCategory.setName(row.getCategoryName());
+                category = categoryRepository.save(newCategory);
+                createdCategories.put(key, category);
+                createdCategories.put("id:" + category.getId(), category);
+            }
+            dish.setCategory(category);
+        }
+        return dish;
+    }
+
+    /**
+     * Джерело рядків імпорту незалежно від формату файлу.
+     */
+    @FunctionalInterface
+    private interface RowSource {
+        DishImportRow next() throws IOException;
+    }
+
+    /**
+     * Прочитаний рядок з його номером та, можливо, помилкою розбору.
+     */
+    private record ParsedRow(long number, DishImportRow value, String error) {
+    }
+}
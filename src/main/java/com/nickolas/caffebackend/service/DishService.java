@@ -1,5 +1,10 @@
 package com.nickolas.caffebackend.service;
 
+import com.nickolas.caffebackend.catalog.DishCursor;
+import com.nickolas.caffebackend.catalog.DishSort;
+import com.nickolas.caffebackend.catalog.MenuCatalog;
+import com.nickolas.caffebackend.catalog.MenuFacets;
+import com.nickolas.caffebackend.catalog.MenuSnapshot;
 import com.nickolas.caffebackend.model.Category;
 import com.nickolas.caffebackend.model.Dish;
 import com.nickolas.caffebackend.model.Ingredient;
@@ -7,16 +12,34 @@ import com.nickolas.caffebackend.model.IngredientStock;
 import com.nickolas.caffebackend.repository.CategoryRepository;
 import com.nickolas.caffebackend.repository.DishRepository;
 import com.nickolas.caffebackend.repository.IngredientRepository;
+import com.nickolas.caffebackend.repository.IngredientStockJdbcRepository;
 import com.nickolas.caffebackend.repository.IngredientStockRepository;
 import com.nickolas.caffebackend.request.DishCreateRequest;
 import com.nickolas.caffebackend.request.DishUpdateRequest;
+import com.nickolas.caffebackend.request.IngredientRequest;
+import com.nickolas.caffebackend.response.CursorPage;
+import com.nickolas.caffebackend.response.DishFacetsResponse;
+import com.nickolas.caffebackend.search.DishSearchIndex;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Сервіс для керування стравами.
@@ -28,7 +51,11 @@ public class DishService {
 private final DishRepository dishRepository;
     private final CategoryRepository categoryRepository;
     private final IngredientStockRepository ingredientStockRepository;
+    private final IngredientStockJdbcRepository ingredientStockJdbcRepository;
     private IngredientRepository ingredientRepository;
+    private final MenuCatalog menuCatalog;
+    private final DishSearchIndex dishSearchIndex;
+    private final MenuFacets menuFacets;
 
     /**
      * Конструктор з впровадженням залежностей.
@@ -37,13 +64,21 @@ private final DishRepository dishRepository;
      * @param categoryRepository          репозиторій категорій
      * @param ingredientRepository        репозиторій інгредієнтів
      * @param ingredientStockRepository   репозиторій складу інгредієнтів
+     * @param ingredientStockJdbcRepository пакетне списання зі складу
+     * @param menuCatalog                 модель читання меню
+     * @param dishSearchIndex             пошуковий індекс страв
+     * @param menuFacets                  агрегати фасетів меню
      */
     @Autowired
-    public DishService(DishRepository dishRepository, CategoryRepository categoryRepository, IngredientRepository ingredientRepository, IngredientStockRepository ingredientStockRepository) {
+    public DishService(DishRepository dishRepository, CategoryRepository categoryRepository, IngredientRepository ingredientRepository, IngredientStockRepository ingredientStockRepository, IngredientStockJdbcRepository ingredientStockJdbcRepository, MenuCatalog menuCatalog, DishSearchIndex dishSearchIndex, MenuFacets menuFacets) {
         this.dishRepository = dishRepository;
         this.categoryRepository = categoryRepository;
         this.ingredientStockRepository = ingredientStockRepository;
+        this.ingredientStockJdbcRepository = ingredientStockJdbcRepository;
         this.ingredientRepository = ingredientRepository;
+        this.menuCatalog = menuCatalog;
+        this.dishSearchIndex = dishSearchIndex;
+        this.menuFacets = menuFacets;
     }
 
     /**
@@ -52,7 +87,7 @@ private final DishRepository dishRepository;
      * @return список усіх страв
      */
     public List<Dish> getAllDishes() {
-        return dishRepository.findAll();
+        return menuCatalog.snapshot().getDishes();
     }
 
     /**
@@ -62,7 +97,7 @@ private final DishRepository dishRepository;
      * @return сторінка страв
      */
     public Page<Dish> getAllDishes(PageRequest pageRequest) {
-        return dishRepository.findAll(pageRequest);
+        return menuCatalog.snapshot().findAll(pageRequest);
     }
 
 
@@ -76,17 +111,7 @@ private final DishRepository dishRepository;
      * @return сторінка страв
      */
 public Page<Dish> getDishesByCategory(Long categoryId, PageRequest pageRequest, String sortOrder, String name) {
-    if (sortOrder == null || sortOrder.isEmpty()) {
-        // Якщо сортування не вказано, сортуємо за замовчуванням, якщо необхідно
-        if (name != null && !name.isEmpty()) {
-            return dishRepository.findByCategoryIdAndNameContainingIgnoreCase(categoryId, name, pageRequest);
-        } else {
-            return dishRepository.findByCategoryId(categoryId, pageRequest);
-        }
-    } else {
-        // Якщо сортування вказано
-        return dishRepository.findByCategoryIdAndPriceBetweenWithSort(categoryId, null, null, sortOrder, pageRequest);
-    }
+    return menuCatalog.snapshot().findByCategory(categoryId, null, null, sortOrder, name, pageRequest);
 }
 
     /**
@@ -101,15 +126,56 @@ public Page<Dish> getDishesByCategory(Long categoryId, PageRequest pageRequest,
      * @return сторінка страв
      */
     public Page<Dish> getDishesByCategoryWithPriceFilter(Long categoryId, PageRequest pageRequest, Double minPrice, Double maxPrice, String sortOrder, String name) {
-        if (sortOrder == null || sortOrder.isEmpty()) {
-            if (name != null && !name.isEmpty()) {
-                return dishRepository.findByCategoryIdAndNameContainingIgnoreCase(categoryId, name, pageRequest);
-            } else {
-                return dishRepository.findByCategoryIdAndPriceBetween(categoryId, minPrice, maxPrice, pageRequest);
-            }
-        } else {
-            return dishRepository.findByCategoryIdAndPriceBetweenWithSort(categoryId, minPrice, maxPrice, sortOrder, pageRequest);
-        }
+        return menuCatalog.snapshot().findByCategory(categoryId, minPrice, maxPrice, sortOrder, name, pageRequest);
+    }
+
+    /**
+     * Курсорна пагінація страв для нескінченного прокручування.
+     *
+     * @param categoryId ідентифікатор категорії або {@code null} для всього меню
+     * @param sort параметр сортування: price, price_desc або name
+     * @param cursor курсор попередньої сторінки (необов'язково)
+     * @param minPrice мінімальна ціна (необов'язково)
+     * @param maxPrice максимальна ціна (необов'язково)
+     * @param name фрагмент назви (необов'язково)
+     * @param limit розмір сторінки
+     * @param includeTotal чи рахувати загальну кількість
+     * @return сторінка страв з курсором продовження
+     * @throws IllegalArgumentException якщо сортування або курсор некоректні
+     */
+    public CursorPage<Dish> scrollDishes(Long categoryId, String sort, String cursor, Double minPrice, Double maxPrice,
+                                         String name, int limit, boolean includeTotal) {
+        DishSort dishSort = DishSort.parse(sort);
+        DishCursor after = cursor == null || cursor.isBlank() ? null : DishCursor.decode(cursor, dishSort);
+        return menuCatalog.snapshot().scroll(categoryId, dishSort, after, minPrice, maxPrice, name, limit, includeTotal);
+    }
+
+    /**
+     * Повнотекстовий пошук страв за назвою та описом з ранжуванням за релевантністю.
+     *
+     * @param query пошуковий рядок
+     * @param categoryId ідентифікатор категорії для обмеження пошуку (необов'язково)
+     * @param limit максимальна кількість результатів
+     * @return знайдені страви від найрелевантнішої
+     */
+    public List<Dish> searchDishes(String query, Long categoryId, int limit) {
+        MenuSnapshot snapshot = menuCatalog.snapshot();
+        return dishSearchIndex.search(query, limit, dishId -> categoryId == null || snapshot.findDish(dishId)
+                        .map(dish -> dish.getCategory() != null && categoryId.equals(dish.getCategory().getId()))
+                        .orElse(false))
+                .stream()
+                .flatMap(dishId -> snapshot.findDish(dishId).stream())
+                .toList();
+    }
+
+    /**
+     * Повертає фасети для фільтрів: кількість страв за категоріями, гістограму та межі цін.
+     *
+     * @param categoryId ідентифікатор категорії або {@code null} для всього меню
+     * @return фасети
+     */
+    public DishFacetsResponse getFacets(Long categoryId) {
+        return menuFacets.facets(categoryId, menuCatalog.snapshot());
     }
 
     /**
@@ -119,7 +185,7 @@ public Page<Dish> getDishesByCategory(Long categoryId, PageRequest pageRequest,
      * @return Optional зі стравою або порожній, якщо не знайдено
      */
     public Optional<Dish> getDishById(Long id) {
-        return dishRepository.findById(id);
+        return menuCatalog.snapshot().findDish(id);
     }
 
     /**
@@ -129,6 +195,7 @@ public Page<Dish> getDishesByCategory(Long categoryId, PageRequest pageRequest,
      * @return створена страва
      * @throws RuntimeException якщо інгредієнтів недостатньо або інші помилки
      */
+    @Transactional
     public Dish createDish(DishCreateRequest request) {
         Dish dish = new Dish();
         dish.setName(request.getName());
@@ -138,40 +205,59 @@ public Page<Dish> getDishesByCategory(Long categoryId, PageRequest pageRequest,
         dish.setWeight(request.getWeight());
         dish.setPreparationTime(request.getPreparationTime());
 
-        if (request.getIngredients() != null) {
-            List<Ingredient> usedIngredients = request.getIngredients().stream().map(reqIng -> {
-                IngredientStock stock = ingredientStockRepository.findByNameIgnoreCase(reqIng.getName())
-                        .orElseThrow(() -> new RuntimeException("Інгредієнт '" + reqIng.getName() + "' не знайдено на складі"));
+        if (request.getIngredients() != null && !request.getIngredients().isEmpty()) {
+            Set<String> names = new HashSet<>();
+            request.getIngredients().forEach(reqIng -> names.add(lowerName(reqIng.getName())));
+            names.remove(null);
+            Map<String, IngredientStock> stocks = new HashMap<>();
+            if (!names.isEmpty()) {
+                ingredientStockRepository.findAllByLowerNameIn(names)
+                        .forEach(stock -> stocks.putIfAbsent(lowerName(stock.getName()), stock));
+            }
 
-                int quantityToUse = parseQuantity(reqIng.getQuantity());
+            Map<Long, Double> needed = new HashMap<>();
+            List<Ingredient> usedIngredients = new ArrayList<>();
+            for (IngredientRequest reqIng : request.getIngredients()) {
+                IngredientStock stock = stocks.get(lowerName(reqIng.getName()));
+                if (stock == null) {
+                    throw new RuntimeException("Інгредієнт '" + reqIng.getName() + "' не знайдено на складі");
+                }
+                double quantityToUse = needed.merge(stock.getId(), (double) parseQuantity(reqIng.getQuantity()), Double::sum);
                 if (stock.getAvailableQuantity() < quantityToUse) {
                     throw new RuntimeException("Недостатньо інгредієнта '" + reqIng.getName() + "'. Доступно: "
                             + stock.getAvailableQuantity() + ", потрібно: " + quantityToUse);
                 }
 
-                stock.setAvailableQuantity(stock.getAvailableQuantity() - quantityToUse);
-                ingredientStockRepository.save(stock);
-
                 Ingredient newIngredient = new Ingredient();
                 newIngredient.setName(reqIng.getName());
                 newIngredient.setQuantity(reqIng.getQuantity());
                 newIngredient.setUnit(stock.getUnit());
+                newIngredient.setIngredientStock(stock);
                 newIngredient.setDish(dish);
-                return newIngredient;
-            }).toList();
+                usedIngredients.add(newIngredient);
+            }
 
+            List<Long> shortStocks = ingredientStockJdbcRepository.decrementAll(needed);
+            if (!shortStocks.isEmpty()) {
+                String shortNames = stocks.values().stream()
+                        .filter(stock -> shortStocks.contains(stock.getId()))
+                        .map(IngredientStock::getName)
+                        .distinct()
+                        .collect(Collectors.joining("', '"));
+                throw new RuntimeException("Недостатньо інгредієнта '" + shortNames + "'");
+            }
             dish.setIngredients(usedIngredients);
         }
 
-
-
         if (request.getCategoryId() != null) {
             Category category = categoryRepository.findById(request.getCategoryId())
                     .orElseThrow(() -> new RuntimeException("Category not found with id: " + request.getCategoryId()));
             dish.setCategory(category);
         }
 
-        return dishRepository.save(dish);
+        Dish savedDish = dishRepository.save(dish);
+        menuCatalog.dishSaved(savedDish);
+        return savedDish;
     }
 
 
@@ -184,8 +270,13 @@ public Page<Dish> getDishesByCategory(Long categoryId, PageRequest pageRequest,
      * @return оновлена страва
      * @throws RuntimeException якщо страва або категорія не знайдені
      */
+    @Transactional
     public Dish updateDish(Long id, DishUpdateRequest request) {
-        return dishRepository.findById(id).map(existingDish -> {
+        // Рядок блокується до читання ціни, тож конкурентні зміни рахують різницю для кошиків послідовно.
+        double previousPrice = dishRepository.findLockedById(id)
+                .orElseThrow(() -> new RuntimeException("Dish not found"))
+                .getPrice();
+        return dishRepository.findWithDetailsById(id).map(existingDish -> {
             existingDish.setName(request.getName());
             existingDish.setDescription(request.getDescription());
             existingDish.setPrice(request.getPrice());
@@ -197,26 +288,78 @@ public Page<Dish> getDishesByCategory(Long categoryId, PageRequest pageRequest,
                     .orElseThrow(() -> new RuntimeException("Category not found"));
             existingDish.setCategory(category);
 
-            existingDish.getIngredients().clear();
-            if (request.getIngredients() != null) {
-                List<Ingredient> updatedIngredients = request.getIngredients().stream()
-                        .map(ing -> {
-                            Ingredient ingredient = new Ingredient();
-                            ingredient.setName(ing.getName());
-                            ingredient.setQuantity(ing.getQuantity());
-                            ingredient.setDish(existingDish);
-                            ingredientStockRepository.findByNameIgnoreCase(ing.getName())
-                                    .ifPresent(stock -> ingredient.setUnit(stock.getUnit()));
-                            return ingredient;
-                        })
-                        .toList();
-                existingDish.getIngredients().addAll(updatedIngredients);
-            }
+            updateIngredients(existingDish, request.getIngredients());
 
+            Dish savedDish = dishRepository.save(existingDish);
+            menuCatalog.dishPriceChanged(id, previousPrice, savedDish.getPrice());
+            menuCatalog.dishSaved(savedDish);
+            return savedDish;
+        }).orElseThrow(() -> new RuntimeException("Dish not found"));
+    }
 
+    /**
+     * Приводить інгредієнти страви до вказаного списку, змінюючи лише те, що відрізняється.
+     * <p>
+     * Наявні інгредієнти зіставляються з новими за назвою без урахування регістру: збіглі
+     * оновлюються на місці (і лише якщо змінилися), нові додаються, відсутні в запиті
+     * видаляються через orphanRemoval. Одиниці виміру для нових інгредієнтів визначаються
+     * одним запитом до складу.
+     *
+     * @param dish      страва з завантаженими інгредієнтами
+     * @param requested   новий список інгредієнтів ({@code null} — без інгредієнтів)
+     */
+    private void updateIngredients(Dish dish, List<IngredientRequest> requested) {
+        Map<String, Deque<Ingredient>> existing = new HashMap<>();
+        for (Ingredient ingredient : dish.getIngredients()) {
+            existing.computeIfAbsent(lowerName(ingredient.getName()), name -> new ArrayDeque<>()).add(ingredient);
+        }
 
-            return dishRepository.save(existingDish);
-        }).orElseThrow(() -> new RuntimeException("Dish not found"));
+        List<IngredientRequest> added = new ArrayList<>();
+        Set<Ingredient> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (IngredientRequest request : requested == null ? List.<IngredientRequest>of() : requested) {
+            Deque<Ingredient> matches = existing.get(lowerName(request.getName()));
+            Ingredient match = matches == null ? null : matches.poll();
+            if (match == null) {
+                added.add(request);
+                continue;
+            }
+            if (!Objects.equals(match.getName(), request.getName())) {
+                match.setName(request.getName());
+            }
+            if (!Objects.equals(match.getQuantity(), request.getQuantity())) {
+                match.setQuantity(request.getQuantity());
+            }
+            kept.add(match);
+        }
+        dish.getIngredients().removeIf(ingredient -> !kept.contains(ingredient));
+
+        if (added.isEmpty()) {
+            return;
+        }
+        Map<String, IngredientStock> stocks = new HashMap<>();
+        Set<String> names = new HashSet<>();
+        added.forEach(request -> names.add(lowerName(request.getName())));
+        names.remove(null);
+        if (!names.isEmpty()) {
+            ingredientStockRepository.findAllByLowerNameIn(names)
+                    .forEach(stock -> stocks.putIfAbsent(lowerName(stock.getName()), stock));
+        }
+        for (IngredientRequest request : added) {
+            Ingredient ingredient = new Ingredient();
+            ingredient.setName(request.getName());
+            ingredient.setQuantity(request.getQuantity());
+            ingredient.setDish(dish);
+            IngredientStock stock = stocks.get(lowerName(request.getName()));
+            if (stock != null) {
+                ingredient.setUnit(stock.getUnit());
+                ingredient.setIngredientStock(stock);
+            }
+            dish.getIngredients().add(ingredient);
+        }
+    }
+
+    private static String lowerName(String name) {
+        return name == null ? null : name.toLowerCase(Locale.ROOT);
     }
 
     /**
@@ -226,7 +369,7 @@ public Page<Dish> getDishesByCategory(Long categoryId, PageRequest pageRequest,
      * @return числове значення
      * @throws RuntimeException якщо не вдалося перетворити
      */
-    private int parseQuantity(String quantityStr) {
+    static int parseQuantity(String quantityStr) {
         try {
             return Integer.parseInt(quantityStr.replaceAll("[^0-9]", ""));
         } catch (NumberFormatException e) {
@@ -243,6 +386,7 @@ public Page<Dish> getDishesByCategory(Long categoryId, PageRequest pageRequest,
     public void deleteDish(Long id) {
         if (dishRepository.existsById(id)) {
             dishRepository.deleteById(id);
+            menuCatalog.dishDeleted(id);
         } else {
             throw new RuntimeException("Dish not found");
         }
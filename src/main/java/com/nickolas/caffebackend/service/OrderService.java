@@ -1,14 +1,44 @@
 package com.nickolas.caffebackend.service;
 
+import com.nickolas.caffebackend.catalog.MenuCatalog;
+import com.nickolas.caffebackend.catalog.MenuSnapshot;
 import com.nickolas.caffebackend.domain.OrderStatus;
 import com.nickolas.caffebackend.model.*;
+import com.nickolas.caffebackend.order.OrderEvent;
+import com.nickolas.caffebackend.order.OrderEventBus;
+import com.nickolas.caffebackend.repository.CartJdbcRepository;
+import com.nickolas.caffebackend.repository.CartRepository;
+import com.nickolas.caffebackend.repository.IngredientStockJdbcRepository;
+import com.nickolas.caffebackend.repository.IngredientStockRepository;
+import com.nickolas.caffebackend.repository.OrderFeedJdbcRepository;
+import com.nickolas.caffebackend.repository.OrderJdbcRepository;
 import com.nickolas.caffebackend.repository.OrderRepository;
+import com.nickolas.caffebackend.repository.StockReservationJdbcRepository;
 import com.nickolas.caffebackend.repository.UserRepository;
 import com.nickolas.caffebackend.request.CreateOrderRequest;
+import com.nickolas.caffebackend.request.OrderFeedFilter;
+import com.nickolas.caffebackend.response.CursorPage;
+import com.nickolas.caffebackend.response.OrderFeedItem;
+import com.nickolas.caffebackend.response.OrderResponse;
+import com.nickolas.caffebackend.response.RevenueResponse;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Сервіс для обробки замовлень.
@@ -16,6 +46,11 @@ import java.util.List;
  */
 @Service
 public class OrderService {
+    /**
+     * Кількість замовлень, що читаються з БД за один запит під час вивантаження.
+     */
+    private static final int EXPORT_CHUNK = 1000;
+
     @Autowired
     private OrderRepository orderRepository;
 
@@ -25,32 +60,184 @@ public class OrderService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CartRepository cartRepository;
+
+    @Autowired
+    private CartJdbcRepository cartJdbcRepository;
+
+    @Autowired
+    private OrderJdbcRepository orderJdbcRepository;
+
+    @Autowired
+    private IngredientStockJdbcRepository ingredientStockJdbcRepository;
+
+    @Autowired
+    private IngredientStockRepository ingredientStockRepository;
+
+    @Autowired
+    private StockReservationJdbcRepository stockReservationJdbcRepository;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    @Autowired
+    private OrderEventBus orderEventBus;
+
+    @Autowired
+    private OrderFeedJdbcRepository orderFeedJdbcRepository;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
     /**
      * Створює нове замовлення на основі вмісту кошика користувача.
+     * <p>
+     * Виконується однією транзакцією: кошик з позиціями та стравами завантажується одним запитом,
+     * замовлення вставляється разом з позиціями одним пакетом, а кошик очищується масовим видаленням.
+     * Ціни позицій і сума замовлення фіксуються за поточним знімком меню і надалі не залежать від змін цін.
+     * Інгредієнти за рецептами страв резервуються на складі останнім кроком, щоб рядки популярних
+     * запасів були заблоковані якомога коротше. Будь-яка помилка відкочує все, тож кошик не втрачається.
      *
      * @param email   електронна пошта користувача
      * @param request дані для створення замовлення (телефон, тип доставки, адреса або пункт самовивозу)
      * @return створене замовлення
-     * @throws RuntimeException якщо користувач не знайдений, кошик порожній або дані доставки некоректні
+     * @throws RuntimeException якщо користувач не знайдений, кошик порожній, дані доставки некоректні
+     *                          або інгредієнтів на складі недостатньо
      */
+    @Transactional
     public Order createOrder(String email, CreateOrderRequest request) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+        String deliveryAddress = validateOrderRequest(request);
 
-        Cart cart = cartService.getCartByUserEmail(email);
+        if (request.getGuestCart() != null) {
+            cartService.mergeGuestCart(email, request.getGuestCart());
+        }
+        // Кошик з відкладеним записом скидається окремою транзакцією, тож відкат оформлення його не зачіпає.
+        cartService.flush(email);
 
-        if (cart.getItems().isEmpty()) {
+        Cart cart = cartRepository.findWithItemsByUserEmail(email).orElse(null);
+        if (cart == null) {
+            userRepository.findByEmail(email).orElseThrow(() -> new RuntimeException("User not found"));
             throw new RuntimeException("Cart is empty");
         }
-
-        if (request.getPhoneNumber() == null || request.getPhoneNumber().isBlank()) {
-            throw new RuntimeException("Phone number is required");
+        if (cart.getItems().isEmpty()) {
+            throw new RuntimeException("Cart is empty");
         }
+        entityManager.detach(cart);
 
         Order order = new Order();
-        order.setUser(user);
+        order.setUser(cart.getUser());
         order.setPhoneNumber(request.getPhoneNumber());
         order.setDeliveryType(request.getDeliveryType());
+        order.setDeliveryAddress(deliveryAddress);
+        order.setCreatedAt(LocalDateTime.now());
+
+        MenuSnapshot menu = menuCatalog.snapshot();
+        List<OrderItem> items = new ArrayList<>();
+        double total = 0;
+        for (CartItem cartItem : cart.getItems()) {
+            double unitPrice = menu.findDish(cartItem.getDish().getId()).orElse(cartItem.getDish()).getPrice();
+            OrderItem orderItem = new OrderItem();
+            orderItem.setOrder(order);
+            orderItem.setDish(cartItem.getDish());
+            orderItem.setQuantity(cartItem.getQuantity());
+            orderItem.setUnitPrice(unitPrice);
+            orderItem.setLineTotal(unitPrice * cartItem.getQuantity());
+            total += orderItem.getLineTotal();
+            items.add(orderItem);
+        }
+        order.setTotal(total);
+        orderRepository.saveAndFlush(order);
+        entityManager.detach(order);
+        orderJdbcRepository.insertItems(items);
+        order.getItems().addAll(items);
+
+        cartJdbcRepository.clear(cart.getId(), LocalDateTime.now());
+        reserveIngredients(order, items);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cartService.invalidate(email);
+            }
+        });
+        orderEventBus.publish(OrderEvent.Type.CREATED, order.getId(), order.getStatus(), email);
+        return order;
+    }
+
+    /**
+     * Резервує інгредієнти замовлення: потреби за рецептами зі знімка меню підсумовуються по запасах
+     * і списуються одним пакетом умовних оновлень, без попереднього читання залишків.
+     * Інгредієнти, створені без прив'язки до складу, зіставляються із запасами за назвою одним запитом,
+     * так само як при створенні страви.
+     *
+     * @param order збережене замовлення
+     * @param items позиції замовлення
+     * @throws RuntimeException якщо інгредієнта немає на складі або його недостатньо
+     */
+    private void reserveIngredients(Order order, List<OrderItem> items) {
+        MenuSnapshot menu = menuCatalog.snapshot();
+        Map<Long, Double> needed = new HashMap<>();
+        Map<Long, String> names = new HashMap<>();
+        Map<String, Double> unlinked = new HashMap<>();
+        for (OrderItem item : items) {
+            Dish dish = menu.findDish(item.getDish().getId()).orElse(null);
+            if (dish == null) {
+                continue;
+            }
+            for (Ingredient ingredient : dish.getIngredients()) {
+                double amount = (double) DishService.parseQuantity(ingredient.getQuantity()) * item.getQuantity();
+                IngredientStock stock = ingredient.getIngredientStock();
+                if (stock == null) {
+                    // Без зв'язку зі складом інгредієнт шукається за назвою, тож без назви його не зарезервувати.
+                    if (ingredient.getName() == null) {
+                        throw new RuntimeException("Інгредієнт без назви у страві '" + dish.getName()
+                                + "' не пов'язаний зі складом");
+                    }
+                    unlinked.merge(ingredient.getName().toLowerCase(Locale.ROOT), amount, Double::sum);
+                    continue;
+                }
+                needed.merge(stock.getId(), amount, Double::sum);
+                names.putIfAbsent(stock.getId(), stock.getName());
+            }
+        }
+        if (!unlinked.isEmpty()) {
+            Map<String, IngredientStock> stocks = new HashMap<>();
+            ingredientStockRepository.findAllByLowerNameIn(unlinked.keySet()).stream()
+                    .filter(stock -> stock.getName() != null)
+                    .forEach(stock -> stocks.putIfAbsent(stock.getName().toLowerCase(Locale.ROOT), stock));
+            for (Map.Entry<String, Double> entry : unlinked.entrySet()) {
+                IngredientStock stock = stocks.get(entry.getKey());
+                if (stock == null) {
+                    throw new RuntimeException("Інгредієнт '" + entry.getKey() + "' не знайдено на складі");
+                }
+                needed.merge(stock.getId(), entry.getValue(), Double::sum);
+                names.putIfAbsent(stock.getId(), stock.getName());
+            }
+        }
+        if (needed.isEmpty()) {
+            return;
+        }
+
+        List<Long> shortStocks = ingredientStockJdbcRepository.decrementAll(needed);
+        if (!shortStocks.isEmpty()) {
+            Set<String> shortNames = new LinkedHashSet<>();
+            shortStocks.forEach(id -> shortNames.add(names.get(id)));
+            throw new RuntimeException("Недостатньо інгредієнта '" + String.join("', '", shortNames) + "'");
+        }
+        stockReservationJdbcRepository.insertAll(order.getId(), needed);
+    }
+
+    /**
+     * Перевіряє дані замовлення без звернень до БД і формує адресу доставки.
+     *
+     * @param request дані для створення замовлення
+     * @return адреса доставки або пункт самовивозу
+     * @throws RuntimeException якщо телефон відсутній або дані доставки некоректні
+     */
+    public String validateOrderRequest(CreateOrderRequest request) {
+        if (request.getPhoneNumber() == null || request.getPhoneNumber().isBlank()) {
+            throw new RuntimeException("Phone number is required");
+        }
 
         if ("delivery".equalsIgnoreCase(request.getDeliveryType())) {
             if (request.getCity() == null || request.getStreet() == null || request.getBuilding() == null) {
@@ -66,94 +253,154 @@ public class OrderService {
                 address.append(", кв. ").append(request.getApartment());
             }
 
-            order.setDeliveryAddress(address.toString());
+            return address.toString();
         }
         else if ("pickup".equalsIgnoreCase(request.getDeliveryType())) {
             if (request.getPickupPoint() == null || request.getPickupPoint().isBlank()) {
                 throw new RuntimeException("Pickup point is required for self-pickup");
             }
-            order.setDeliveryAddress("Самовивіз: " + request.getPickupPoint());
+            return "Самовивіз: " + request.getPickupPoint();
         } else {
             throw new RuntimeException("Invalid delivery type");
         }
-
-        for (CartItem cartItem : cart.getItems()) {
-            OrderItem orderItem = new OrderItem();
-            orderItem.setOrder(order);
-            orderItem.setDish(cartItem.getDish());
-            orderItem.setQuantity(cartItem.getQuantity());
-            order.getItems().add(orderItem);
-        }
-
-        cartService.clearCart(email);
-        return orderRepository.save(order);
     }
 
     /**
      * Повертає список замовлень користувача.
+     * Замовлення читаються одним проєкційним запитом без завантаження сутностей.
      *
      * @param email електронна пошта користувача
      * @return список замовлень
      * @throws RuntimeException якщо користувач не знайдений
      */
-    public List<Order> getOrdersForUser(String email) {
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new RuntimeException("User not found"));
-        return orderRepository.findByUser(user);
+    public List<OrderResponse> getOrdersForUser(String email) {
+        if (!userRepository.existsByEmail(email)) {
+            throw new RuntimeException("User not found");
+        }
+        return orderJdbcRepository.findResponses(email);
+    }
+
+    /**
+     * Перетворює щойно оформлене замовлення на відповідь для клієнта.
+     *
+     * @param order замовлення з позиціями, страви яких уже завантажені
+     * @return замовлення без даних користувача та повних сутностей страв
+     */
+    public OrderResponse toResponse(Order order) {
+        OrderResponse response = new OrderResponse();
+        response.setId(order.getId());
+        response.setStatus(order.getStatus());
+        response.setCreatedAt(order.getCreatedAt());
+        response.setPhoneNumber(order.getPhoneNumber());
+        response.setDeliveryType(order.getDeliveryType());
+        response.setDeliveryAddress(order.getDeliveryAddress());
+        for (OrderItem item : order.getItems()) {
+            Dish dish = item.getDish();
+            response.getItems().add(new OrderResponse.Line(dish.getId(), dish.getName(), item.getUnitPrice(),
+                    item.getQuantity(), item.getLineTotal()));
+        }
+        response.setTotal(order.getTotal());
+        return response;
     }
 
     /**
-     * Оновлює статус замовлення. Дозволяється лише послідовна зміна (наприклад, з NEW → PROCESSING).
+     * Оновлює статус замовлення за таблицею переходів {@link OrderStatus#allowedSources()}.
+     * Перевірка і зміна статусу виконуються одним умовним оновленням без завантаження замовлення.
+     * Скасування сюди не входить: воно можливе лише через {@link #cancelOrder} з перевіркою власника.
      *
      * @param orderId   ідентифікатор замовлення
      * @param newStatus новий статус
-     * @return оновлене замовлення
-     * @throws RuntimeException якщо замовлення не знайдене або статус змінено некоректно
+     * @return новий статус
+     * @throws RuntimeException якщо замовлення не знайдене, статус змінено некоректно або запитано скасування
      */
-    public Order updateOrderStatus(Long orderId, OrderStatus newStatus) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-        OrderStatus currentStatus = order.getStatus();
-
-        if (currentStatus == OrderStatus.COMPLETED || currentStatus == OrderStatus.CANCELLED) {
-            throw new RuntimeException("Cannot change status after it is " + currentStatus);
+    @Transactional
+    public OrderStatus updateOrderStatus(Long orderId, OrderStatus newStatus) {
+        rejectCancellation(newStatus);
+        int[] updated = orderJdbcRepository.transition(List.of(orderId), newStatus.allowedSources(), newStatus);
+        if (updated[0] == 0) {
+            OrderStatus currentStatus = orderJdbcRepository.findStatusAndOwner(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found"))
+                    .getKey();
+            if (currentStatus == OrderStatus.COMPLETED || currentStatus == OrderStatus.CANCELLED) {
+                throw new RuntimeException("Cannot change status after it is " + currentStatus);
+            }
+            throw new RuntimeException("Invalid status transition from " + currentStatus + " to " + newStatus);
         }
+        orderEventBus.publishStatusChanged(orderJdbcRepository.findOwnerEmails(List.of(orderId)), newStatus);
+        return newStatus;
+    }
 
-        OrderStatus[] statusFlow = OrderStatus.values();
-        int currentIndex = currentStatus.ordinal();
-        int newIndex = newStatus.ordinal();
+    /**
+     * Переводить кілька замовлень у новий статус одним пакетом умовних оновлень.
+     * Замовлення, для яких перехід не дозволений або які вже змінив хтось інший, пропускаються.
+     * Скасування, як і в {@link #updateOrderStatus}, не дозволене.
+     *
+     * @param orderIds  ідентифікатори замовлень
+     * @param newStatus новий статус
+     * @return ідентифікатори замовлень, статус яких змінено
+     * @throws RuntimeException якщо запитано скасування
+     */
+    @Transactional
+    public List<Long> updateOrderStatuses(List<Long> orderIds, OrderStatus newStatus) {
+        rejectCancellation(newStatus);
+        List<Long> ids = orderIds.stream().filter(Objects::nonNull).distinct().toList();
+        int[] updated = orderJdbcRepository.transition(ids, newStatus.allowedSources(), newStatus);
+        List<Long> changed = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i++) {
+            if (updated[i] > 0) {
+                changed.add(ids.get(i));
+            }
+        }
+        orderEventBus.publishStatusChanged(orderJdbcRepository.findOwnerEmails(changed), newStatus);
+        return changed;
+    }
 
-        if (newIndex == currentIndex + 1) {
-            order.setStatus(newStatus);
-            return orderRepository.save(order);
-        } else {
-            throw new RuntimeException("Invalid status transition from " + currentStatus + " to " + newStatus);
+    private static void rejectCancellation(OrderStatus newStatus) {
+        if (newStatus == OrderStatus.CANCELLED) {
+            throw new RuntimeException("Order can only be cancelled by its owner");
         }
     }
 
     /**
      * Скасовує замовлення, якщо воно в статусі PENDING і належить вказаному користувачу.
+     * Перевірка власника і статусу входить в умову оновлення, зарезервовані інгредієнти
+     * повертаються на склад у тій самій транзакції.
      *
      * @param orderId ідентифікатор замовлення
      * @param email   електронна пошта користувача
-     * @return оновлене замовлення зі статусом CANCELLED
+     * @return новий статус CANCELLED
      * @throws RuntimeException якщо користувач не авторизований або статус не дозволяє скасування
      */
-    public Order cancelOrder(Long orderId, String email) {
-        Order order = orderRepository.findById(orderId)
-                .orElseThrow(() -> new RuntimeException("Order not found"));
-
-        if (!order.getUser().getEmail().equals(email)) {
-            throw new RuntimeException("You are not authorized to cancel this order");
-        }
-
-        if (order.getStatus() != OrderStatus.PENDING) {
+    @Transactional
+    public OrderStatus cancelOrder(Long orderId, String email) {
+        int updated = orderJdbcRepository.transitionOwned(orderId, email,
+                OrderStatus.CANCELLED.allowedSources(), OrderStatus.CANCELLED);
+        if (updated == 0) {
+            Map.Entry<OrderStatus, String> current = orderJdbcRepository.findStatusAndOwner(orderId)
+                    .orElseThrow(() -> new RuntimeException("Order not found"));
+            if (!current.getValue().equals(email)) {
+                throw new RuntimeException("You are not authorized to cancel this order");
+            }
             throw new RuntimeException("Order cannot be cancelled in its current status");
         }
+        releaseIngredients(orderId);
+        orderEventBus.publish(OrderEvent.Type.STATUS_CHANGED, orderId, OrderStatus.CANCELLED, email);
+        return OrderStatus.CANCELLED;
+    }
 
-        order.setStatus(OrderStatus.CANCELLED);
-        return orderRepository.save(order);
+    /**
+     * Повертає зарезервовані під замовлення інгредієнти на склад і видаляє резерви.
+     * Резерви блокуються при читанні, тож повторне скасування нічого не поверне вдруге.
+     *
+     * @param orderId ідентифікатор замовлення
+     */
+    private void releaseIngredients(Long orderId) {
+        Map<Long, Double> reserved = stockReservationJdbcRepository.lockByOrderId(orderId);
+        if (reserved.isEmpty()) {
+            return;
+        }
+        ingredientStockJdbcRepository.incrementAll(reserved);
+        stockReservationJdbcRepository.deleteByOrderId(orderId);
     }
 
     /**
@@ -161,7 +408,70 @@ public class OrderService {
      *
      * @return список усіх замовлень
      */
-    public List<Order> getAllOrders() {
-        return orderRepository.findAll();
+    public List<OrderResponse> getAllOrders() {
+        return orderJdbcRepository.findResponses(null);
+    }
+
+    /**
+     * Повертає сторінку стрічки замовлень для адміністратора, від новіших до старіших.
+     *
+     * @param filter фільтри за статусом, періодом і типом доставки
+     * @param after  курсор попередньої сторінки або {@code null} для першої
+     * @param limit  розмір сторінки
+     * @return сторінка замовлень з курсором продовження
+     * @throws IllegalArgumentException якщо курсор пошкоджений
+     */
+    public CursorPage<OrderFeedItem> getOrderFeed(OrderFeedFilter filter, String after, int limit) {
+        Long afterId;
+        try {
+            afterId = after == null || after.isBlank() ? null : Long.valueOf(after);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        List<OrderFeedItem> items = orderFeedJdbcRepository.findPage(filter, afterId, limit + 1);
+        boolean hasMore = items.size() > limit;
+        if (hasMore) {
+            items = items.subList(0, limit);
+        }
+        String nextCursor = hasMore ? String.valueOf(items.get(items.size() - 1).getId()) : null;
+        return new CursorPage<>(List.copyOf(items), nextCursor, hasMore, null);
+    }
+
+    /**
+     * Передає всі замовлення, що відповідають фільтрам, для вивантаження.
+     * Замовлення читаються сторінками за ключем, тож повільний клієнт не тримає з'єднання з пулу:
+     * воно повертається після кожної сторінки, а не після всього вивантаження.
+     *
+     * @param filter   фільтри за статусом, періодом і типом доставки
+     * @param consumer отримувач замовлень
+     */
+    public void exportOrders(OrderFeedFilter filter, Consumer<OrderFeedItem> consumer) {
+        Long afterId = null;
+        List<OrderFeedItem> chunk;
+        do {
+            chunk = orderFeedJdbcRepository.findPage(filter, afterId, EXPORT_CHUNK);
+            chunk.forEach(consumer);
+            if (!chunk.isEmpty()) {
+                afterId = chunk.get(chunk.size() - 1).getId();
+            }
+        } while (chunk.size() == EXPORT_CHUNK);
+    }
+
+    /**
+     * Рахує виручку за період за сумами, зафіксованими при оформленні замовлень.
+     *
+     * @param from початок періоду включно
+     * @param to   кінець періоду не включно
+     * @return виручка разом і по днях
+     */
+    public RevenueResponse getRevenue(LocalDateTime from, LocalDateTime to) {
+        List<RevenueResponse.Day> days = orderJdbcRepository.revenueByDay(from, to);
+        long orderCount = 0;
+        double revenue = 0;
+        for (RevenueResponse.Day day : days) {
+            orderCount += day.getOrderCount();
+            revenue += day.getRevenue();
+        }
+        return new RevenueResponse(from, to, orderCount, revenue, days);
     }
 }
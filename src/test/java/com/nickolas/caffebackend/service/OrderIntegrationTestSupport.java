@@ -0,0 +1,100 @@
+package com.nickolas.caffebackend.service;
+
+import com.nickolas.caffebackend.catalog.MenuCatalog;
+import com.nickolas.caffebackend.domain.Role;
+import com.nickolas.caffebackend.model.Dish;
+import com.nickolas.caffebackend.model.Ingredient;
+import com.nickolas.caffebackend.model.IngredientStock;
+import com.nickolas.caffebackend.model.User;
+import com.nickolas.caffebackend.repository.DishRepository;
+import com.nickolas.caffebackend.repository.IngredientStockRepository;
+import com.nickolas.caffebackend.repository.UserRepository;
+import com.nickolas.caffebackend.request.CartBatchRequest;
+import com.nickolas.caffebackend.request.CreateOrderRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Спільні дані для інтеграційних тестів оформлення замовлення.
+ * Кожен тест створює власних користувача, запас і страву, тож тести не залежать один від одного.
+ */
+abstract class OrderIntegrationTestSupport {
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+
+    @Autowired
+    protected OrderService orderService;
+
+    @Autowired
+    protected CartService cartService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private DishRepository dishRepository;
+
+    @Autowired
+    private IngredientStockRepository ingredientStockRepository;
+
+    @Autowired
+    private MenuCatalog menuCatalog;
+
+    protected String createUser() {
+        int n = SEQUENCE.incrementAndGet();
+        User user = new User();
+        user.setUsername("user" + n);
+        user.setEmail("user" + n + "@test.local");
+        user.setPassword("secret");
+        user.setRole(Role.ROLE_USER);
+        return userRepository.save(user).getEmail();
+    }
+
+    protected IngredientStock createStock(double quantity) {
+        IngredientStock stock = new IngredientStock();
+        stock.setName("Інгредієнт " + SEQUENCE.incrementAndGet());
+        stock.setAvailableQuantity(quantity);
+        stock.setUnit("г");
+        return ingredientStockRepository.save(stock);
+    }
+
+    /**
+     * Створює страву з одним інгредієнтом без прив'язки до складу, як у страв, створених до резервування.
+     */
+    protected Dish createDish(IngredientStock stock, String quantity) {
+        Dish dish = new Dish();
+        dish.setName("Страва " + SEQUENCE.incrementAndGet());
+        dish.setPrice(120);
+        Ingredient ingredient = new Ingredient();
+        ingredient.setName(stock.getName());
+        ingredient.setQuantity(quantity);
+        ingredient.setUnit(stock.getUnit());
+        ingredient.setDish(dish);
+        dish.getIngredients().add(ingredient);
+        Dish saved = dishRepository.save(dish);
+        menuCatalog.reload();
+        return saved;
+    }
+
+    protected void addToCart(String email, Long dishId, int quantity) {
+        CartBatchRequest.Operation operation = new CartBatchRequest.Operation();
+        operation.setOp("add");
+        operation.setDishId(dishId);
+        operation.setQuantity(quantity);
+        CartBatchRequest request = new CartBatchRequest();
+        request.getOperations().add(operation);
+        cartService.applyBatch(email, request);
+    }
+
+    protected double available(IngredientStock stock) {
+        return ingredientStockRepository.findById(stock.getId()).orElseThrow().getAvailableQuantity();
+    }
+
+    protected static CreateOrderRequest pickup() {
+        CreateOrderRequest request = new CreateOrderRequest();
+        request.setPhoneNumber("+380000000000");
+        request.setDeliveryType("pickup");
+        request.setPickupPoint("Центр");
+        return request;
+    }
+}
@@ -0,0 +1,138 @@
+package com.nickolas.caffebackend.service;
+
+import com.nickolas.caffebackend.domain.OrderStatus;
+import com.nickolas.caffebackend.model.Dish;
+import com.nickolas.caffebackend.model.IngredientStock;
+import com.nickolas.caffebackend.model.Order;
+import com.nickolas.caffebackend.response.CartResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Інтеграційні тести оформлення замовлення та переходів статусу на вбудованій БД.
+ * Кошик зберігається напряму в БД.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class OrderServiceIntegrationTest extends OrderIntegrationTestSupport {
+
+    @Test
+    void checkoutRollbackLeavesCartAndStockIntact() {
+        String email = createUser();
+        IngredientStock stock = createStock(10);
+        Dish dish = createDish(stock, "5 г");
+        addToCart(email, dish.getId(), 3);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> orderService.createOrder(email, pickup()));
+
+        assertTrue(error.getMessage().startsWith("Недостатньо інгредієнта"), error.getMessage());
+        CartResponse cart = cartService.getCartView(email);
+        assertEquals(1, cart.getItems().size());
+        assertEquals(3, cart.getItems().get(0).getQuantity());
+        assertEquals(10, available(stock), 0.0001);
+        assertTrue(orderService.getOrdersForUser(email).isEmpty());
+    }
+
+    @Test
+    void checkoutRejectsUnnamedUnlinkedIngredient() {
+        String email = createUser();
+        IngredientStock unnamed = new IngredientStock();
+        unnamed.setUnit("г");
+        Dish dish = createDish(unnamed, "5 г");
+        addToCart(email, dish.getId(), 1);
+
+        RuntimeException error = assertThrows(RuntimeException.class, () -> orderService.createOrder(email, pickup()));
+
+        assertTrue(error.getMessage().startsWith("Інгредієнт без назви"), error.getMessage());
+        assertTrue(orderService.getOrdersForUser(email).isEmpty());
+    }
+
+    @Test
+    void doubleCancelReleasesStockOnce() {
+        String email = createUser();
+        IngredientStock stock = createStock(100);
+        Dish dish = createDish(stock, "5 г");
+        addToCart(email, dish.getId(), 2);
+
+        Order order = orderService.createOrder(email, pickup());
+        assertEquals(90, available(stock), 0.0001);
+
+        assertEquals(OrderStatus.CANCELLED, orderService.cancelOrder(order.getId(), email));
+        assertThrows(RuntimeException.class, () -> orderService.cancelOrder(order.getId(), email));
+
+        assertEquals(100, available(stock), 0.0001);
+    }
+
+    @Test
+    void concurrentCancelsReleaseStockOnce() throws Exception {
+        String email = createUser();
+        IngredientStock stock = createStock(100);
+        Dish dish = createDish(stock, "5 г");
+        addToCart(email, dish.getId(), 2);
+        Order order = orderService.createOrder(email, pickup());
+
+        int succeeded = race(8, () -> orderService.cancelOrder(order.getId(), email));
+
+        assertEquals(1, succeeded);
+        assertEquals(100, available(stock), 0.0001);
+    }
+
+    @Test
+    void concurrentTransitionsHaveSingleWinner() throws Exception {
+        String email = createUser();
+        IngredientStock stock = createStock(100);
+        Dish dish = createDish(stock, "5 г");
+        addToCart(email, dish.getId(), 1);
+        Order order = orderService.createOrder(email, pickup());
+
+        int succeeded = race(8, () -> orderService.updateOrderStatus(order.getId(), OrderStatus.IN_PROGRESS));
+
+        assertEquals(1, succeeded);
+        assertEquals(OrderStatus.IN_PROGRESS, orderService.getOrdersForUser(email).get(0).getStatus());
+    }
+
+    /**
+     * Запускає дію одночасно в кількох потоках і повертає кількість успішних викликів.
+     */
+    private static int race(int threads, Runnable action) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                results.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        action.run();
+                        return true;
+                    } catch (RuntimeException e) {
+                        return false;
+                    }
+                }));
+            }
+            start.countDown();
+            int succeeded = 0;
+            for (Future<Boolean> result : results) {
+                if (result.get(30, TimeUnit.SECONDS)) {
+                    succeeded++;
+                }
+            }
+            return succeeded;
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
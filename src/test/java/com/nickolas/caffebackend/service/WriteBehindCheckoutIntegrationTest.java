@@ -0,0 +1,48 @@
+package com.nickolas.caffebackend.service;
+
+import com.nickolas.caffebackend.model.Dish;
+import com.nickolas.caffebackend.model.IngredientStock;
+import com.nickolas.caffebackend.response.CartDeltaResponse;
+import com.nickolas.caffebackend.response.CartResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Інтеграційні тести оформлення замовлення з кошиком з відкладеним записом.
+ */
+@SpringBootTest(properties = {
+        "cart.store.mode=write-behind",
+        "spring.datasource.url=jdbc:h2:mem:caffe-write-behind;MODE=MySQL;DATABASE_TO_LOWER=TRUE;LOCK_TIMEOUT=10000;DB_CLOSE_DELAY=-1"
+})
+@ActiveProfiles("test")
+class WriteBehindCheckoutIntegrationTest extends OrderIntegrationTestSupport {
+
+    @Test
+    void checkoutRollbackKeepsWriteBehindCartFlushed() {
+        String email = createUser();
+        IngredientStock shortStock = createStock(10);
+        Dish shortDish = createDish(shortStock, "5 г");
+        Dish otherDish = createDish(createStock(100), "5 г");
+        addToCart(email, shortDish.getId(), 3);
+
+        assertThrows(RuntimeException.class, () -> orderService.createOrder(email, pickup()));
+
+        // Наступна зміна має записатися в БД, а не вважатися конфліктом з відкоченим скиданням.
+        addToCart(email, otherDish.getId(), 1);
+        cartService.flush(email);
+        cartService.invalidate(email);
+
+        CartResponse cart = cartService.getCartView(email);
+        Map<Long, Integer> quantities = cart.getItems().stream()
+                .collect(Collectors.toMap(CartDeltaResponse.Line::getDishId, CartDeltaResponse.Line::getQuantity));
+        assertEquals(Map.of(shortDish.getId(), 3, otherDish.getId(), 1), quantities);
+        assertEquals(10, available(shortStock), 0.0001);
+    }
+}